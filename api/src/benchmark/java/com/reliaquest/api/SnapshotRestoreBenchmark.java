@@ -0,0 +1,163 @@
+package com.reliaquest.api;
+
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.service.CachedCalculationService;
+import com.reliaquest.api.service.store.RosterStore;
+import com.reliaquest.api.service.store.SnapshotFile;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares a cold start, where the first request waits for the whole roster from the upstream, with a start from a
+ * saved snapshot of 1M employees. Reports how long the context takes to start and how long until
+ * {@code /employee/highest-salary} first answers 200, both measured from the moment the context is launched.
+ */
+class SnapshotRestoreBenchmark {
+
+    private static final int EMPLOYEES = 1_000_000;
+
+    @TempDir
+    static Path directory;
+
+    private static Path snapshot;
+    private static HttpServer upstream;
+    private static byte[] roster;
+
+    @BeforeAll
+    static void startUpstream() throws IOException {
+        List<Employee> employees = new ArrayList<>(EMPLOYEES);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(new Employee(UUID.randomUUID(), "Employee " + i, 30_000 + i % 470_000, 16 + i % 60,
+                    "Title " + i % 500, "employee" + i + "@company.com"));
+        }
+        roster = json(employees).getBytes(StandardCharsets.UTF_8);
+
+        snapshot = directory.resolve("roster.bin");
+        RosterStore store = new RosterStore();
+        long start = System.nanoTime();
+        SnapshotFile.write(store.replaceAll(employees), snapshot);
+        System.out.printf("snapshot written in %d ms, %d MiB (upstream body %d MiB)%n",
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), Files.size(snapshot) >> 20,
+                roster.length >> 20);
+
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.setExecutor(Executors.newCachedThreadPool());
+        upstream.createContext("/api/v1/employee", SnapshotRestoreBenchmark::getAll);
+        upstream.start();
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void start_givenSnapshot_servesBeforeUpstreamLoad() throws Exception {
+        Result cold = run(false);
+        report("cold", cold);
+        Result warm = run(true);
+        report("snapshot", warm);
+
+        System.out.printf("snapshot/cold: %.2fx time to first good response%n",
+                (double) warm.firstResponseMillis() / cold.firstResponseMillis());
+        assertTrue(warm.firstResponseMillis() < cold.firstResponseMillis());
+    }
+
+    private static Result run(boolean restore) throws IOException, InterruptedException {
+        CachedCalculationService.invalidateCache();
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "employee.url=http://localhost:" + upstream.getAddress().getPort() + "/api/v1/employee",
+                "employee.rate-limit.enabled=false",
+                "employee.events.enabled=false",
+                "spring.cloud.openfeign.client.config.default.read-timeout=300000",
+                "logging.level.com.reliaquest.api=WARN",
+                "logging.level.feign.Logger=WARN"));
+        if (restore) {
+            properties.add("employee.roster.snapshot.path=" + snapshot);
+        }
+
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiApplication.class)
+                .properties(properties.toArray(String[]::new))
+                .run()) {
+            long started = System.nanoTime();
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request =
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/employee/highest-salary")).build();
+            while (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                Thread.sleep(10);
+            }
+            long answered = System.nanoTime();
+
+            return new Result(Duration.ofNanos(started - start).toMillis(),
+                    Duration.ofNanos(answered - start).toMillis());
+        }
+    }
+
+    private static void report(String mode, Result result) {
+        System.out.printf("%-8s startup %6d ms  first good response %6d ms  (%d employees)%n",
+                mode, result.startupMillis(), result.firstResponseMillis(), EMPLOYEES);
+    }
+
+    private static void getAll(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, roster.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(roster);
+        }
+    }
+
+    private static String json(List<Employee> employees) {
+        StringBuilder json = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(employee.id())
+                    .append("\",\"employee_name\":\"").append(employee.employeeName())
+                    .append("\",\"employee_salary\":").append(employee.employeeSalary())
+                    .append(",\"employee_age\":").append(employee.employeeAge())
+                    .append(",\"employee_title\":\"").append(employee.employeeTitle())
+                    .append("\",\"employee_email\":\"").append(employee.employeeEmail()).append("\"}");
+        }
+        return json.append("],\"status\":\"Successfully processed request.\"}").toString();
+    }
+
+    private record Result(long startupMillis, long firstResponseMillis) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.reliaquest.api;
+
+import com.reliaquest.api.service.CachedCalculationService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the platform and virtual thread modes while the upstream is slow. Every request looks up an employee the
+ * API has not seen, so it holds its servlet thread for the whole upstream call. With platform threads Tomcat's pool
+ * caps how many of those can be in flight, with virtual threads only the upstream does.
+ */
+class ThreadingModeBenchmark {
+
+    private static final Duration UPSTREAM_DELAY = Duration.ofMillis(200);
+    private static final int CONCURRENCY = 1000;
+    private static final int WARMUP_REQUESTS = 2_000;
+    private static final int REQUESTS = 20_000;
+
+    private static HttpServer upstream;
+
+    @BeforeAll
+    static void startUpstream() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENCY);
+        upstream.setExecutor(Executors.newCachedThreadPool());
+        upstream.createContext("/api/v1/employee/", ThreadingModeBenchmark::slowEmployee);
+        upstream.start();
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void getById_givenSlowUpstream_comparesThreadingModes() throws Exception {
+        Result platform = run(false);
+        report("platform", platform);
+        assertEquals(0, platform.failures());
+
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21+, run with -PjavaVersion=21");
+        Result virtual = run(true);
+        report("virtual", virtual);
+        assertEquals(0, virtual.failures());
+
+        System.out.printf("virtual/platform: %.2fx throughput, %.2fx p99%n",
+                virtual.throughput() / platform.throughput(), (double) virtual.p99Millis() / platform.p99Millis());
+    }
+
+    private static Result run(boolean virtualThreads) throws InterruptedException {
+        CachedCalculationService.invalidateCache();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "employee.url=http://localhost:" + upstream.getAddress().getPort() + "/api/v1/employee",
+                        "employee.rate-limit.enabled=false",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "logging.level.com.reliaquest.api=WARN",
+                        "logging.level.feign.Logger=WARN")
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            load(port, WARMUP_REQUESTS);
+            return load(port, REQUESTS);
+        }
+    }
+
+    private static Result load(int port, int requests) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies = new long[requests];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sentAt = System.nanoTime();
+            // a fresh id every time, so neither the cache nor single-flight can answer for the upstream
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + "/employee/get-by-id?id=" + UUID.randomUUID()))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - sentAt;
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(requests * 1e9 / elapsed, percentileMillis(latencies, 0.5),
+                percentileMillis(latencies, 0.99), failures.get());
+    }
+
+    private static long percentileMillis(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return Duration.ofNanos(sortedNanos[Math.max(0, index)]).toMillis();
+    }
+
+    private static void report(String mode, Result result) {
+        System.out.printf("%-8s %8.0f req/s  p50 %5d ms  p99 %5d ms  (%d requests, %d concurrent, upstream %d ms)%n",
+                mode, result.throughput(), result.p50Millis(), result.p99Millis(), REQUESTS, CONCURRENCY,
+                UPSTREAM_DELAY.toMillis());
+    }
+
+    private static void slowEmployee(HttpExchange exchange) throws IOException {
+        String id = exchange.getRequestURI().getPath().substring(exchange.getHttpContext().getPath().length());
+        try {
+            Thread.sleep(UPSTREAM_DELAY.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        byte[] body = ("{\"data\":{\"id\":\"" + id + "\",\"employee_name\":\"Benchmark Employee\","
+                + "\"employee_salary\":100000,\"employee_age\":30,\"employee_title\":\"Engineer\","
+                + "\"employee_email\":\"benchmark@company.com\"},\"status\":\"Successfully processed request.\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private record Result(double throughput, long p50Millis, long p99Millis, int failures) {
+    }
+}
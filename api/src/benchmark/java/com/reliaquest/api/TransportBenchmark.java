@@ -0,0 +1,157 @@
+package com.reliaquest.api;
+
+import com.reliaquest.api.client.EmployeeClient;
+import com.reliaquest.api.client.EmployeeStream;
+import com.reliaquest.api.client.RosterReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the transports {@link EmployeeClient} can run on by timing {@code getAll} against a roster of 100k
+ * employees. The upstream serves pre-built bodies, so only the client side (connection handling, decompression and
+ * streaming parse) is measured, along with how many bytes each transport moves.
+ */
+class TransportBenchmark {
+
+    private static final int EMPLOYEES = 100_000;
+    private static final int WARMUP_CALLS = 5;
+    private static final int CALLS = 20;
+
+    private static HttpServer upstream;
+    private static byte[] plainBody;
+    private static byte[] gzippedBody;
+    private static volatile boolean compress;
+    private static final AtomicLong bytesSent = new AtomicLong();
+
+    enum Transport {
+        URL_CONNECTION(false, false),
+        HC5_IDENTITY(true, false),
+        HC5_GZIP(true, true);
+
+        private final boolean hc5;
+        private final boolean gzip;
+
+        Transport(boolean hc5, boolean gzip) {
+            this.hc5 = hc5;
+            this.gzip = gzip;
+        }
+    }
+
+    @BeforeAll
+    static void startUpstream() throws IOException {
+        plainBody = roster().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(plainBody);
+        }
+        gzippedBody = gzipped.toByteArray();
+
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.setExecutor(Executors.newCachedThreadPool());
+        upstream.createContext("/api/v1/employee", TransportBenchmark::getAll);
+        upstream.start();
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Transport.class)
+    void getAll_givenLargeRoster_timesTransport(Transport transport) throws IOException {
+        compress = transport.gzip;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiApplication.class)
+                .properties(
+                        "server.port=0",
+                        "employee.url=http://localhost:" + upstream.getAddress().getPort() + "/api/v1/employee",
+                        "employee.rate-limit.enabled=false",
+                        "spring.cloud.openfeign.httpclient.hc5.enabled=" + transport.hc5,
+                        "spring.cloud.openfeign.client.config.default.read-timeout=60000",
+                        "logging.level.com.reliaquest.api=WARN",
+                        "logging.level.feign.Logger=WARN")
+                .run()) {
+            RosterReader reader = context.getBean(RosterReader.class);
+            for (int i = 0; i < WARMUP_CALLS; i++) {
+                assertEquals(EMPLOYEES, count(reader));
+            }
+
+            bytesSent.set(0);
+            long[] millis = new long[CALLS];
+            for (int i = 0; i < CALLS; i++) {
+                long start = System.nanoTime();
+                int employees = count(reader);
+                millis[i] = Duration.ofNanos(System.nanoTime() - start).toMillis();
+                assertEquals(EMPLOYEES, employees);
+            }
+
+            Arrays.sort(millis);
+            System.out.printf("%-14s mean %5d ms  p50 %5d ms  max %5d ms  %6d KiB per response%n",
+                    transport, Arrays.stream(millis).sum() / CALLS, millis[CALLS / 2], millis[CALLS - 1],
+                    bytesSent.get() / CALLS / 1024);
+        }
+    }
+
+    private static int count(RosterReader reader) throws IOException {
+        int count = 0;
+        try (EmployeeStream employees = reader.open()) {
+            while (employees.hasNext()) {
+                employees.next();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void getAll(HttpExchange exchange) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = compress && acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] body = gzip ? gzippedBody : plainBody;
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+        bytesSent.addAndGet(body.length);
+    }
+
+    private static String roster() {
+        StringBuilder json = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < EMPLOYEES; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(UUID.randomUUID())
+                    .append("\",\"employee_name\":\"Employee ").append(i)
+                    .append("\",\"employee_salary\":").append(30_000 + i % 470_000)
+                    .append(",\"employee_age\":").append(16 + i % 60)
+                    .append(",\"employee_title\":\"Title ").append(i % 500)
+                    .append("\",\"employee_email\":\"employee").append(i).append("@company.com\"}");
+        }
+        return json.append("],\"status\":\"Successfully processed request.\"}").toString();
+    }
+}
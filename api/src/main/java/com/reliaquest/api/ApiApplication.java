@@ -1,8 +1,18 @@
 package com.reliaquest.api;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reliaquest.api.client.RetryAfterInterval;
+import com.reliaquest.api.service.CachedCalculationService;
+import io.github.resilience4j.common.retry.configuration.RetryConfigCustomizer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -10,6 +20,7 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import static java.util.concurrent.TimeUnit.MINUTES;
 
@@ -18,6 +29,8 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 @EnableCaching
 @Configuration
 @EnableAspectJAutoProxy
+@EnableScheduling
+@ConfigurationPropertiesScan
 public class ApiApplication {
 
     public static void main(String[] args) {
@@ -31,4 +44,25 @@ public class ApiApplication {
                 .expireAfterWrite(2, MINUTES));
         return manager;
     }
+
+    @Bean
+    public MeterBinder searchCacheMetrics() {
+        return registry -> CaffeineCacheMetrics.monitor(registry, CachedCalculationService.getSEARCH_CACHE(),
+                "employeeSearch");
+    }
+
+    @Bean
+    public MeterBinder employeeClientPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> connectionManager.ifAvailable(manager -> {
+            if (manager instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "employee-client").bindTo(registry);
+            }
+        });
+    }
+
+    @Bean
+    public RetryConfigCustomizer remoteServiceRetryInterval(RetryAfterInterval retryAfterInterval) {
+        return RetryConfigCustomizer.of("remoteServiceRetry",
+                builder -> builder.intervalBiFunction(retryAfterInterval));
+    }
 }
@@ -0,0 +1,219 @@
+package com.reliaquest.api.client;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+/**
+ * Client-side guard for the upstream request limit. The upstream accepts a fixed number of requests, then refuses
+ * everything with 429 until a window has passed since the last request it accepted. Neither number is published, so
+ * both are learned from what the upstream answers: the budget is how many requests got through before the first
+ * refusal, the window is how long after the last accepted request the upstream took one again.
+ *
+ * <p>While the upstream is known to be refusing, requests are held back if it opens again within
+ * {@link RateLimitProperties#maxWait()} and fail fast with {@link RateLimitedException} otherwise. Before the window
+ * has been learned, a single request at a time probes the upstream, with the gap doubling after every refusal.
+ */
+@Component
+@ConditionalOnProperty(prefix = "employee.rate-limit", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class AdaptiveRateLimiter implements Capability {
+
+    private static final String REMAINING_METRIC = "employee.client.rate.limit.remaining";
+    private static final String REJECTED_METRIC = "employee.client.rate.limit.rejected";
+
+    private final RateLimitProperties properties;
+    private final Clock clock;
+    private final Counter rejected;
+
+    // guarded by this
+    private int budget = -1;
+    private Duration window;
+    private int reserved;
+    private int accepted;
+    private Instant lastAccepted;
+    private Instant blockedUntil;
+    private Instant probedAt;
+    private boolean refusedWhileBlocked;
+    private Duration backoff;
+
+    @Autowired
+    public AdaptiveRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    AdaptiveRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.backoff = properties.initialBackoff();
+        this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("Upstream calls failed fast because the upstream was expected to refuse them")
+                .register(meterRegistry);
+        Gauge.builder(REMAINING_METRIC, this, AdaptiveRateLimiter::remainingBudget)
+                .description("Requests the upstream should still accept before it starts refusing, NaN until learned")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            acquire(request);
+
+            Instant sentAt = clock.instant();
+            Response response = client.execute(request, options);
+            if (response.status() == TOO_MANY_REQUESTS.value()) {
+                refused(sentAt, retryAfter(response));
+            } else {
+                accepted(sentAt);
+            }
+            return response;
+        };
+    }
+
+    public synchronized double remainingBudget() {
+        if (blockedUntil != null) {
+            return 0;
+        }
+        return budget < 0 ? Double.NaN : Math.max(0, budget - reserved);
+    }
+
+    void acquire(Request request) {
+        while (true) {
+            Duration wait = reserve();
+            if (wait.isZero()) {
+                return;
+            }
+            if (wait.compareTo(properties.maxWait()) > 0) {
+                rejected.increment();
+                throw new RateLimitedException(request, wait);
+            }
+
+            try {
+                Thread.sleep(wait.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RateLimitedException(request, wait);
+            }
+        }
+    }
+
+    /**
+     * Takes a slot for one request, or returns how long until the upstream is expected to accept one.
+     */
+    synchronized Duration reserve() {
+        Instant now = clock.instant();
+
+        if (blockedUntil != null) {
+            if (now.isBefore(blockedUntil)) {
+                return Duration.between(now, blockedUntil);
+            }
+            // this request probes the upstream, everyone after it waits for the outcome
+            blockedUntil = now.plus(backoff);
+            probedAt = now;
+            reserved++;
+            return Duration.ZERO;
+        }
+
+        if (budget >= 0 && reserved >= budget && window != null) {
+            Instant reopens = lastAccepted.plus(window);
+            if (now.isBefore(reopens)) {
+                block(reopens);
+                return Duration.between(now, reopens);
+            }
+            reserved = 0;
+            accepted = 0;
+        }
+
+        reserved++;
+        return Duration.ZERO;
+    }
+
+    synchronized void accepted(Instant sentAt) {
+        if (isProbe(sentAt)) {
+            if (refusedWhileBlocked && lastAccepted != null) {
+                // every observation overestimates the window, by the probe gap and by any requests the upstream
+                // accepted from other clients since ours, so the smallest one is the closest
+                Duration observed = Duration.between(lastAccepted, sentAt);
+                window = window == null ? observed : min(window, observed);
+                log.debug("Upstream accepted requests again after {}, assuming a {} window", observed, window);
+            }
+            blockedUntil = null;
+            probedAt = null;
+            refusedWhileBlocked = false;
+            backoff = properties.initialBackoff();
+            reserved = 1;
+            accepted = 0;
+        }
+
+        accepted++;
+        if (lastAccepted == null || sentAt.isAfter(lastAccepted)) {
+            lastAccepted = sentAt;
+        }
+    }
+
+    synchronized void refused(Instant sentAt, Duration retryAfter) {
+        Instant now = clock.instant();
+
+        if (blockedUntil == null) {
+            if (accepted > 0) {
+                budget = accepted;
+                log.debug("Upstream refused a request after accepting {}", budget);
+            }
+            Instant reopens = window == null ? null : lastAccepted.plus(window);
+            block(reopens != null && reopens.isAfter(now) ? reopens : now.plus(backoff));
+        } else if (isProbe(sentAt)) {
+            backoff = min(backoff.multipliedBy(2), properties.maxBackoff());
+            block(now.plus(backoff));
+        } else {
+            // in flight before the block started, already accounted for
+            return;
+        }
+        refusedWhileBlocked = true;
+
+        if (retryAfter != null) {
+            blockedUntil = now.plus(retryAfter);
+        }
+    }
+
+    private void block(Instant until) {
+        blockedUntil = until;
+        probedAt = null;
+    }
+
+    private boolean isProbe(Instant sentAt) {
+        return probedAt != null && !sentAt.isBefore(probedAt);
+    }
+
+    private static Duration retryAfter(Response response) {
+        Collection<String> values = response.headers().get(RETRY_AFTER);
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(values.iterator().next().trim()));
+        } catch (NumberFormatException e) {
+            // HTTP dates aren't worth supporting, fall back to probing
+            return null;
+        }
+    }
+
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+}
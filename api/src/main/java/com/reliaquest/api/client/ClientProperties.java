@@ -0,0 +1,21 @@
+package com.reliaquest.api.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * @param timeouts timeouts for single {@link EmployeeClient} operations, by method name. Anything left unset falls
+ *                 back to the {@code spring.cloud.openfeign.client.config} timeouts.
+ */
+@ConfigurationProperties(prefix = "employee.client")
+public record ClientProperties(Map<String, Timeouts> timeouts) {
+
+    public ClientProperties {
+        timeouts = timeouts == null ? Map.of() : Map.copyOf(timeouts);
+    }
+
+    public record Timeouts(Duration connectTimeout, Duration readTimeout) {
+    }
+}
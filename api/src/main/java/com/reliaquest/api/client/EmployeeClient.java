@@ -1,6 +1,8 @@
 package com.reliaquest.api.client;
 
+import com.reliaquest.api.client.api.BulkItemResult;
 import com.reliaquest.api.client.api.DeleteEmployeeRequest;
+import com.reliaquest.api.client.api.EmployeeChanges;
 import com.reliaquest.api.client.api.Response;
 import com.reliaquest.api.controller.api.CreateEmployeeRequest;
 import com.reliaquest.api.model.Employee;
@@ -13,8 +15,19 @@ import java.util.List;
 @FeignClient(name = "employee-client", url = "${employee.url}")
 public interface EmployeeClient {
 
+    /**
+     * The raw roster response, so {@link RosterReader} can parse it while it streams in instead of materializing a
+     * {@code Response<List<Employee>>} first.
+     */
     @GetMapping
-    Response<List<Employee>> getAll();
+    feign.Response getAll();
+
+    /**
+     * Roster changes after {@code since}, a sequence taken from {@link EmployeeStream#changeSequence()} or an earlier
+     * call.
+     */
+    @GetMapping("/changes")
+    Response<EmployeeChanges> getChanges(@RequestParam long since);
 
     @GetMapping("/{id}")
     Response<Employee> getById(@PathVariable String id);
@@ -23,10 +36,27 @@ public interface EmployeeClient {
     @Retry(name = "remoteServiceRetry", fallbackMethod = "fallback")
     Response<Employee> create(@RequestBody CreateEmployeeRequest createEmployeeRequest);
 
+    /**
+     * {@link #create} without the retry and its fallback, for callers that handle a refused request themselves.
+     */
+    @PostMapping
+    Response<Employee> createOnce(@RequestBody CreateEmployeeRequest createEmployeeRequest);
+
+    /**
+     * Creates up to 1000 employees in one request, counted once against the upstream rate limit. Not retried, since
+     * a batch that did get through would be created twice.
+     */
+    @PostMapping("/bulk")
+    Response<List<BulkItemResult>> createAll(@RequestBody List<CreateEmployeeRequest> createEmployeeRequests);
+
     @DeleteMapping
     Response<Boolean> delete(@RequestBody DeleteEmployeeRequest name);
 
     default Response fallback(CreateEmployeeRequest o, Throwable t) {
         return new Response<>(null, "Temporarily unavailable due to rate limiting. Please try again later.");
     }
+
+    default Response fallback(CreateEmployeeRequest o, RateLimitedException e) {
+        throw e;
+    }
 }
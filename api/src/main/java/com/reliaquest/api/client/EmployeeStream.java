@@ -0,0 +1,103 @@
+package com.reliaquest.api.client;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.reliaquest.api.model.Employee;
+import feign.Response;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.OptionalLong;
+
+/**
+ * Employees of an upstream {@code {"data": [...], "status": ...}} roster body, parsed one at a time as they are
+ * iterated. Closing the stream releases the upstream connection, whether or not it was read to the end.
+ */
+public final class EmployeeStream implements Iterator<Employee>, Closeable {
+
+    static final String CHANGE_SEQUENCE_HEADER = "X-Change-Sequence";
+
+    private final Response response;
+    private final JsonParser parser;
+    private final ObjectReader reader;
+    private Employee next;
+
+    EmployeeStream(Response response, JsonParser parser, ObjectReader reader) throws IOException {
+        this.response = response;
+        this.parser = parser;
+        this.reader = reader;
+        seekData();
+        advance();
+    }
+
+    /**
+     * Position in the upstream change log the roster was read at, if the upstream keeps one. Changes after it may or
+     * may not be in this roster already.
+     */
+    public OptionalLong changeSequence() {
+        Collection<String> values = response.headers().get(CHANGE_SEQUENCE_HEADER);
+        if (values == null || values.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Long.parseLong(values.iterator().next().trim()));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Employee next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        Employee current = next;
+        try {
+            advance();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return current;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            parser.close();
+        } finally {
+            response.close();
+        }
+    }
+
+    private void seekData() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected the upstream roster to be an object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            JsonToken value = parser.nextToken();
+            if ("data".equals(parser.currentName())) {
+                if (value != JsonToken.START_ARRAY) {
+                    throw new JsonParseException(parser, "Expected the upstream roster data to be an array");
+                }
+                return;
+            }
+            parser.skipChildren();
+        }
+        throw new JsonParseException(parser, "Upstream roster has no data");
+    }
+
+    private void advance() throws IOException {
+        next = parser.nextToken() == JsonToken.START_OBJECT ? reader.readValue(parser) : null;
+    }
+}
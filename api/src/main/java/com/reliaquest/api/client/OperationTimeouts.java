@@ -0,0 +1,44 @@
+package com.reliaquest.api.client;
+
+import feign.Capability;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Request;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Applies the per-operation timeouts from {@link ClientProperties}. Feign only configures timeouts per client, but
+ * {@code getAll} reads the whole roster and needs far more time than a single lookup should be allowed.
+ */
+@Component
+@AllArgsConstructor
+public class OperationTimeouts implements Capability {
+
+    private final ClientProperties properties;
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> client.execute(request, optionsFor(request, options));
+    }
+
+    Request.Options optionsFor(Request request, Request.Options defaults) {
+        MethodMetadata method = request.requestTemplate() == null ? null : request.requestTemplate().methodMetadata();
+        ClientProperties.Timeouts timeouts = method == null ? null
+                : properties.timeouts().get(method.method().getName());
+        if (timeouts == null) {
+            return defaults;
+        }
+
+        return new Request.Options(
+                timeouts.connectTimeout() != null
+                        ? timeouts.connectTimeout()
+                        : Duration.ofMillis(defaults.connectTimeoutMillis()),
+                timeouts.readTimeout() != null
+                        ? timeouts.readTimeout()
+                        : Duration.ofMillis(defaults.readTimeoutMillis()),
+                defaults.isFollowRedirects());
+    }
+}
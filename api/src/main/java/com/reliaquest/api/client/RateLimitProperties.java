@@ -0,0 +1,17 @@
+package com.reliaquest.api.client;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maxWait        longest a request is held back for the upstream window to end before it fails fast instead
+ * @param initialBackoff gap before the first probe while the upstream window length is still unknown
+ * @param maxBackoff     cap for the probe gap, which doubles with every refused probe
+ */
+@ConfigurationProperties(prefix = "employee.rate-limit")
+public record RateLimitProperties(@DefaultValue("PT1S") Duration maxWait,
+                                  @DefaultValue("PT1S") Duration initialBackoff,
+                                  @DefaultValue("PT2M") Duration maxBackoff) {
+}
@@ -0,0 +1,30 @@
+package com.reliaquest.api.client;
+
+import feign.FeignException;
+import feign.Request;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
+/**
+ * Thrown instead of calling the upstream when it is known to be refusing requests.
+ */
+@Getter
+public class RateLimitedException extends FeignException.TooManyRequests {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitedException(Request request, Duration retryAfter) {
+        this(request, Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
+
+    private RateLimitedException(Request request, long retryAfterSeconds) {
+        super("Upstream rate limit reached, retry in " + retryAfterSeconds + "s", request, null,
+                Map.of(RETRY_AFTER, List.of(String.valueOf(retryAfterSeconds))));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
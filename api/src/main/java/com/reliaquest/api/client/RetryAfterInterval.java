@@ -0,0 +1,63 @@
+package com.reliaquest.api.client;
+
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.core.IntervalBiFunction;
+import io.github.resilience4j.core.functions.Either;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
+/**
+ * Waits between retries for as long as the upstream's {@code Retry-After} asks, capped at
+ * {@link RateLimitProperties#maxBackoff()}. Without one, the wait starts at {@link RateLimitProperties#initialBackoff()}
+ * and doubles with every attempt, like the limiter's probes.
+ */
+@Component
+@AllArgsConstructor
+public class RetryAfterInterval implements IntervalBiFunction<Object> {
+
+    private final RateLimitProperties properties;
+
+    @Override
+    public Long apply(Integer attempt, Either<Throwable, Object> outcome) {
+        long maxBackoff = properties.maxBackoff().toMillis();
+        Optional<Duration> requested = outcome.isLeft() ? retryAfter(outcome.getLeft()) : Optional.empty();
+        if (requested.isPresent()) {
+            return Math.min(requested.get().toMillis(), maxBackoff);
+        }
+        long backoff = properties.initialBackoff().toMillis() << Math.min(Math.max(attempt - 1, 0), 20);
+        return Math.min(backoff, maxBackoff);
+    }
+
+    /**
+     * The wait a refused request asked for, if it said.
+     */
+    public static Optional<Duration> retryAfter(Throwable error) {
+        if (error instanceof RateLimitedException rateLimited) {
+            return Optional.of(Duration.ofSeconds(rateLimited.getRetryAfterSeconds()));
+        }
+        if (error instanceof RetryableException retryable && retryable.retryAfter() != null) {
+            // the default decoder already turned the header into an instant
+            return Optional.of(Duration.ofMillis(Math.max(0, retryable.retryAfter() - System.currentTimeMillis())));
+        }
+        if (!(error instanceof FeignException feignException)) {
+            return Optional.empty();
+        }
+        Collection<String> values = feignException.responseHeaders().get(RETRY_AFTER);
+        if (values == null || values.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(values.iterator().next().trim()))));
+        } catch (NumberFormatException e) {
+            // HTTP dates aren't worth supporting
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.reliaquest.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.reliaquest.api.model.Employee;
+import feign.FeignException;
+import feign.Response;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Reads the upstream roster without materializing it. Only the employee being parsed is held at any time, so reading
+ * a roster of a million costs no more memory than reading one of ten, on top of whatever the caller keeps.
+ */
+@Component
+public class RosterReader {
+
+    private final EmployeeClient employeeClient;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader employeeReader;
+
+    public RosterReader(EmployeeClient employeeClient, ObjectMapper objectMapper) {
+        this.employeeClient = employeeClient;
+        this.objectMapper = objectMapper;
+        this.employeeReader = objectMapper.readerFor(Employee.class);
+    }
+
+    /**
+     * Opens the roster; the caller has to close it.
+     */
+    public EmployeeStream open() {
+        Response response = employeeClient.getAll();
+        try {
+            if (response.status() < 200 || response.status() >= 300) {
+                throw FeignException.errorStatus("EmployeeClient#getAll()", response);
+            }
+            return new EmployeeStream(response, objectMapper.createParser(response.body().asInputStream()),
+                    employeeReader);
+        } catch (IOException e) {
+            response.close();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            response.close();
+            throw e;
+        }
+    }
+}
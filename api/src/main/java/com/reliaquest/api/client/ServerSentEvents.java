@@ -0,0 +1,52 @@
+package com.reliaquest.api.client;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Minimal reader for the {@code text/event-stream} format: collects {@code id}, {@code event} and {@code data} fields
+ * line by line and hands over each event at the blank line ending it. Comments and unknown fields are skipped.
+ */
+public final class ServerSentEvents {
+
+    private static final String DEFAULT_EVENT = "message";
+
+    private ServerSentEvents() {
+    }
+
+    public static void read(Iterator<String> lines, Consumer<Event> handler) {
+        String id = null;
+        String name = DEFAULT_EVENT;
+        StringBuilder data = null;
+
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (line.isEmpty()) {
+                if (data != null) {
+                    handler.accept(new Event(id, name, data.toString()));
+                }
+                id = null;
+                name = DEFAULT_EVENT;
+                data = null;
+                continue;
+            }
+            if (line.startsWith(":")) {
+                continue;
+            }
+
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(line.startsWith(" ", colon + 1) ? colon + 2 : colon + 1);
+            switch (field) {
+                case "id" -> id = value;
+                case "event" -> name = value;
+                case "data" -> data = data == null ? new StringBuilder(value) : data.append('\n').append(value);
+                default -> {
+                }
+            }
+        }
+    }
+
+    public record Event(String id, String name, String data) {
+    }
+}
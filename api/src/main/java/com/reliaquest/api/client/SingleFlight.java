@@ -0,0 +1,85 @@
+package com.reliaquest.api.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical upstream calls into one. The first caller for a key performs the call, everyone
+ * arriving while it is in flight waits for and shares its result (or exception).
+ */
+@Component
+@AllArgsConstructor
+public class SingleFlight {
+
+    private static final String CALLS_METRIC = "employee.client.calls";
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T execute(String operation, Supplier<T> call) {
+        return execute(operation, "", call);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, String argument, Supplier<T> call) {
+        String key = operation + ":" + argument;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            counter(operation, "coalesced").increment();
+            return (T) await(existing);
+        }
+
+        counter(operation, "executed").increment();
+        try {
+            T result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public double coalescedCalls(String operation) {
+        return counter(operation, "coalesced").count();
+    }
+
+    public double executedCalls(String operation) {
+        return counter(operation, "executed").count();
+    }
+
+    private Counter counter(String operation, String outcome) {
+        return Counter.builder(CALLS_METRIC)
+                .description("Upstream employee calls, by whether they hit the upstream or joined one in flight")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
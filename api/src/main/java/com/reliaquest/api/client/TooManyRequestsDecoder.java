@@ -0,0 +1,28 @@
+package com.reliaquest.api.client;
+
+import feign.FeignException;
+import feign.Response;
+import feign.codec.ErrorDecoder;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+/**
+ * Decodes a 429 as {@link FeignException.TooManyRequests}, with the response headers attached. Feign's default decoder
+ * turns any error carrying {@code Retry-After} into a {@link feign.RetryableException} instead, and the upstream's
+ * token bucket always sends one, so neither the {@code remoteServiceRetry} configuration nor the create drainer would
+ * recognize the refusal.
+ */
+@Component
+public class TooManyRequestsDecoder implements ErrorDecoder {
+
+    private final ErrorDecoder delegate = new ErrorDecoder.Default();
+
+    @Override
+    public Exception decode(String methodKey, Response response) {
+        if (response.status() == TOO_MANY_REQUESTS.value()) {
+            return FeignException.errorStatus(methodKey, response);
+        }
+        return delegate.decode(methodKey, response);
+    }
+}
@@ -0,0 +1,16 @@
+package com.reliaquest.api.client.api;
+
+import com.reliaquest.api.model.Employee;
+
+/**
+ * What the upstream did with the item at {@code index} of a bulk request.
+ */
+public record BulkItemResult(int index, Status status, Employee data, String error) {
+
+    public enum Status {
+        CREATED,
+        DELETED,
+        NOT_FOUND,
+        INVALID
+    }
+}
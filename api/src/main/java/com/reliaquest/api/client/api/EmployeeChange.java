@@ -0,0 +1,11 @@
+package com.reliaquest.api.client.api;
+
+import com.reliaquest.api.model.Employee;
+
+public record EmployeeChange(long sequence, Type type, Employee employee) {
+
+    public enum Type {
+        CREATED,
+        DELETED
+    }
+}
@@ -0,0 +1,11 @@
+package com.reliaquest.api.client.api;
+
+import java.util.List;
+
+/**
+ * @param sequence  latest upstream sequence, the changes are complete up to it
+ * @param truncated whether the upstream log no longer reaches back as far as asked, so the roster has to be read again
+ */
+public record EmployeeChanges(long sequence, boolean truncated, List<EmployeeChange> changes) {
+
+}
@@ -1,28 +1,73 @@
 package com.reliaquest.api.controller;
 
 import com.reliaquest.api.controller.api.CreateEmployeeRequest;
+import com.reliaquest.api.controller.export.ExportFormat;
+import com.reliaquest.api.model.CreateJob;
 import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.EmployeeField;
+import com.reliaquest.api.model.EmployeePage;
+import com.reliaquest.api.model.SalaryRank;
+import com.reliaquest.api.model.ValueStatistics;
 import com.reliaquest.api.service.CachedCalculationService;
+import com.reliaquest.api.service.CreateJobService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/employee")
 @AllArgsConstructor
 public class EmployeeController implements IEmployeeController<Employee, CreateEmployeeRequest> {
 
+    private static final String DEFAULT_QUANTILES = "0.5,0.9,0.99";
+    private static final String DEFAULT_BUCKETS = "10";
+
     private final CachedCalculationService employeeService;
 
+    private final CreateJobService createJobService;
+
     @Override
     @GetMapping("/all")
     public ResponseEntity<List<Employee>> getAllEmployees() {
         return ResponseEntity.ok(employeeService.getAll());
     }
 
+    /**
+     * Streams the whole roster as NDJSON or CSV, optionally limited to some fields, e.g.
+     * {@code /export?format=csv&fields=id,employeeName}.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(
+            @RequestParam(defaultValue = "ndjson") ExportFormat format,
+            @RequestParam(required = false) List<EmployeeField> fields) {
+        List<Employee> employees = employeeService.getRoster();
+        List<EmployeeField> selected = selected(fields);
+
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .body(out -> format.write(employees, selected, out));
+    }
+
+    /**
+     * One page of the roster in id order, optionally limited to some fields, e.g.
+     * {@code /page?size=50&fields=id,employeeName}. Passing back the returned {@code nextCursor} gets the next page.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<EmployeePage<Map<String, Object>>> getEmployeePage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "${employee.paging.default-size:100}") int size,
+            @RequestParam(required = false) List<EmployeeField> fields) {
+        List<EmployeeField> selected = selected(fields);
+        return ResponseEntity.ok(employeeService.getPage(cursor, size)
+                .map(employee -> EmployeeField.project(employee, selected)));
+    }
+
     @Override
     @GetMapping("/get-by-name")
     public ResponseEntity<List<Employee>> getEmployeesByNameSearch(@RequestParam String name) {
@@ -49,15 +94,65 @@ public class EmployeeController implements IEmployeeController<Employee, CreateE
         return ResponseEntity.ok(employeeService.getTopTenEmployees());
     }
 
+    @GetMapping("/top-highest-earning")
+    public ResponseEntity<List<String>> getTopHighestEarningEmployeeNames(@RequestParam int count) {
+        return ResponseEntity.ok(employeeService.getTopEmployees(count));
+    }
+
+    @GetMapping("/salary-rank")
+    public ResponseEntity<SalaryRank> getSalaryRank(@RequestParam String id) {
+        return employeeService.getSalaryRank(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/statistics/salary")
+    public ResponseEntity<ValueStatistics> getSalaryStatistics(
+            @RequestParam(defaultValue = DEFAULT_QUANTILES) List<Double> quantiles,
+            @RequestParam(defaultValue = DEFAULT_BUCKETS) int buckets) {
+        return ResponseEntity.ok(employeeService.getSalaryStatistics(quantiles, buckets));
+    }
+
+    @GetMapping("/statistics/age")
+    public ResponseEntity<ValueStatistics> getAgeStatistics(
+            @RequestParam(defaultValue = DEFAULT_QUANTILES) List<Double> quantiles,
+            @RequestParam(defaultValue = DEFAULT_BUCKETS) int buckets) {
+        return ResponseEntity.ok(employeeService.getAgeStatistics(quantiles, buckets));
+    }
+
     @Override
     @PostMapping("/create")
     public ResponseEntity<Employee> createEmployee(@Valid @RequestBody CreateEmployeeRequest employeeInput) {
         return ResponseEntity.ok(employeeService.create(employeeInput));
     }
 
+    @PostMapping("/create-async")
+    public ResponseEntity<CreateJob> createEmployeeAsync(@Valid @RequestBody CreateEmployeeRequest employeeInput) {
+        CreateJob job = createJobService.submit(employeeInput);
+        return ResponseEntity.accepted()
+                .location(URI.create("/employee/create-status?id=" + job.id()))
+                .body(job);
+    }
+
+    @GetMapping("/create-status")
+    public ResponseEntity<CreateJob> getCreateStatus(@RequestParam String id) {
+        return createJobService.get(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/pending")
+    public ResponseEntity<List<CreateJob>> getPendingEmployees() {
+        return ResponseEntity.ok(createJobService.getPending());
+    }
+
     @Override
     @DeleteMapping("/delete-by-id")
     public ResponseEntity<String> deleteEmployeeById(@RequestParam String id) {
         return ResponseEntity.ok(employeeService.delete(id));
     }
+
+    private static List<EmployeeField> selected(List<EmployeeField> fields) {
+        return fields == null || fields.isEmpty() ? List.of(EmployeeField.values()) : fields;
+    }
 }
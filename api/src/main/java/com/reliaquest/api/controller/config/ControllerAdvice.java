@@ -1,5 +1,6 @@
 package com.reliaquest.api.controller.config;
 
+import com.reliaquest.api.client.RateLimitedException;
 import feign.FeignException;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +10,8 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
 @RestControllerAdvice
 @Slf4j
 public class ControllerAdvice {
@@ -24,6 +27,16 @@ public class ControllerAdvice {
                 .body(e.contentUTF8());
     }
 
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<String> handleRateLimited(RateLimitedException e) {
+        log.warn(e.getMessage());
+
+        return ResponseEntity
+                .status(e.status())
+                .header(RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationErrors(MethodArgumentNotValidException ex) {
         String errors = ex.getBindingResult().getFieldErrors()
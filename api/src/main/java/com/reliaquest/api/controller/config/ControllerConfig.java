@@ -1,6 +1,9 @@
 package com.reliaquest.api.controller.config;
 
+import com.reliaquest.api.controller.export.ExportFormat;
+import com.reliaquest.api.model.EmployeeField;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -22,6 +25,12 @@ public class ControllerConfig implements WebMvcConfigurer {
                         .setDefaultCharset(UTF_8));
     }
 
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, EmployeeField.class, EmployeeField::fromName);
+        registry.addConverter(String.class, ExportFormat.class, ExportFormat::fromName);
+    }
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(new LoggingInterceptor());
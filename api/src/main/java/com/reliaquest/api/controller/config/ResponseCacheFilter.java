@@ -0,0 +1,162 @@
+package com.reliaquest.api.controller.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reliaquest.api.service.CachedCalculationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.http.HttpHeaders.*;
+
+/**
+ * Caches the encoded bytes of roster-only GET responses per roster version. Until the roster changes, a repeated
+ * request is answered from the cached bytes (or their gzip-compressed copy) without reaching the controller or
+ * Jackson, and a request carrying the current ETag in {@code If-None-Match} gets a bodiless 304.
+ */
+@Component
+@ConditionalOnProperty(prefix = "employee.response-cache", name = "enabled", matchIfMissing = true)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private final CachedCalculationService employeeService;
+    private final ResponseCacheProperties properties;
+    private final Cache<String, CachedResponse> responses;
+
+    public ResponseCacheFilter(CachedCalculationService employeeService, ResponseCacheProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.employeeService = employeeService;
+        this.properties = properties;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(properties.maxSize().toBytes())
+                .weigher((String key, CachedResponse response) -> response.size())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "employeeResponses");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !properties.paths().contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long version;
+        try {
+            version = employeeService.getRosterVersion();
+        } catch (RuntimeException e) {
+            // let the controller fail the same way, where the exception handlers can map it
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached == null || cached.version() != version) {
+            ContentCachingResponseWrapper rendered = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, rendered);
+            if (rendered.getStatus() != HttpServletResponse.SC_OK) {
+                rendered.copyBodyToResponse();
+                return;
+            }
+
+            // labelled with the version read before rendering, so a write racing the controller makes the entry
+            // stale right away instead of serving newer bytes under an older version
+            cached = CachedResponse.of(version, rendered.getContentType(), rendered.getContentAsByteArray(),
+                    properties.minCompressSize().toBytes());
+            responses.put(key, cached);
+        }
+
+        serve(request, response, cached);
+    }
+
+    private static void serve(HttpServletRequest request, HttpServletResponse response, CachedResponse cached)
+            throws IOException {
+        boolean gzip = cached.gzipped() != null && acceptsGzip(request);
+        String etag = gzip ? cached.gzipEtag() : cached.etag();
+
+        response.setHeader(ETAG, etag);
+        response.setHeader(VARY, ACCEPT_ENCODING);
+        if (matches(request.getHeader(IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? cached.gzipped() : cached.body();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        if (gzip) {
+            response.setHeader(CONTENT_ENCODING, GZIP);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains(GZIP);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            // If-None-Match compares weakly, and intermediaries often weaken the ETags they pass on
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    record CachedResponse(long version, String contentType, byte[] body, byte[] gzipped, String etag,
+                          String gzipEtag) {
+
+        static CachedResponse of(long version, String contentType, byte[] body, long minCompressSize) {
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            String tag = version + "-" + Long.toHexString(crc.getValue());
+            byte[] gzipped = body.length >= minCompressSize ? gzip(body) : null;
+            return new CachedResponse(version, contentType, body, gzipped, '"' + tag + '"',
+                    '"' + tag + "-" + GZIP + '"');
+        }
+
+        int size() {
+            return body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+
+        private static byte[] gzip(byte[] body) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return compressed.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.reliaquest.api.controller.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Set;
+
+/**
+ * @param paths           GET endpoints whose responses depend on nothing but the roster and its query string
+ * @param maxSize         bound on the cached bytes, compressed copies included
+ * @param minCompressSize smallest body worth keeping a gzip-compressed copy of
+ */
+@ConfigurationProperties(prefix = "employee.response-cache")
+public record ResponseCacheProperties(
+        @DefaultValue({"/employee/all", "/employee/top-ten-highest-earning", "/employee/highest-salary"})
+        Set<String> paths,
+        @DefaultValue("64MB") DataSize maxSize,
+        @DefaultValue("1KB") DataSize minCompressSize) {
+}
@@ -0,0 +1,100 @@
+package com.reliaquest.api.controller.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.EmployeeField;
+import org.springframework.http.MediaType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Line-oriented roster exports. Employees are written one at a time through a small buffer, so an export holds no
+ * more than one line in memory however large the roster is.
+ */
+public enum ExportFormat {
+
+    NDJSON(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8)) {
+        @Override
+        public void write(Iterable<Employee> employees, List<EmployeeField> fields, OutputStream out)
+                throws IOException {
+            try (JsonGenerator generator = JSON.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                for (Employee employee : employees) {
+                    generator.writeStartObject();
+                    for (EmployeeField field : fields) {
+                        generator.writeFieldName(field.fieldName());
+                        writeValue(generator, field.get(employee));
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+    },
+
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8)) {
+        @Override
+        public void write(Iterable<Employee> employees, List<EmployeeField> fields, OutputStream out)
+                throws IOException {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                writeRow(writer, fields.stream().map(EmployeeField::fieldName).toList());
+                for (Employee employee : employees) {
+                    writeRow(writer, fields.stream().map(field -> field.get(employee)).toList());
+                }
+            }
+        }
+    };
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    public abstract void write(Iterable<Employee> employees, List<EmployeeField> fields, OutputStream out)
+            throws IOException;
+
+    public static ExportFormat fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Integer number) {
+            generator.writeNumber(number);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private static void writeRow(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(escapeCsv(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
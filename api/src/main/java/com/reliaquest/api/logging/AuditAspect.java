@@ -8,6 +8,9 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StopWatch;
 
+import java.util.Collection;
+import java.util.Map;
+
 @Aspect
 @Component
 @Slf4j
@@ -28,9 +31,11 @@ public class AuditAspect {
             Object result = joinPoint.proceed();
             stopWatch.stop();
 
-            log.debug("{}.{}() - Completed in {} ms | Result: {}", className, methodName,
-                    stopWatch.getTotalTimeMillis(),
-                    formatResult(result));
+            if (log.isDebugEnabled()) {
+                log.debug("{}.{}() - Completed in {} ms | Result: {}", className, methodName,
+                        stopWatch.getTotalTimeMillis(),
+                        formatResult(result));
+            }
 
             return result;
         } catch (Exception e) {
@@ -45,6 +50,13 @@ public class AuditAspect {
         if (result == null) {
             return "void";
         }
+        // a whole roster would be turned into one string before the caller sees any of it
+        if (result instanceof Collection<?> collection) {
+            return result.getClass().getSimpleName() + " of " + collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return result.getClass().getSimpleName() + " of " + map.size();
+        }
 
         return result.toString();
     }
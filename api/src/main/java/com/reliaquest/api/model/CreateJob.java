@@ -0,0 +1,33 @@
+package com.reliaquest.api.model;
+
+import com.reliaquest.api.controller.api.CreateEmployeeRequest;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Progress of a create accepted for asynchronous processing.
+ *
+ * @param request  the employee as submitted, visible while the upstream hasn't confirmed it
+ * @param employee set once the job succeeded
+ * @param error    set once the job failed
+ */
+public record CreateJob(UUID id, Status status, CreateEmployeeRequest request, Employee employee, String error,
+                        Instant submittedAt, Instant completedAt) {
+
+    public enum Status {
+        PENDING, SUCCEEDED, FAILED
+    }
+
+    public static CreateJob pending(CreateEmployeeRequest request) {
+        return new CreateJob(UUID.randomUUID(), Status.PENDING, request, null, null, Instant.now(), null);
+    }
+
+    public CreateJob succeeded(Employee employee) {
+        return new CreateJob(id, Status.SUCCEEDED, request, employee, null, submittedAt, Instant.now());
+    }
+
+    public CreateJob failed(String error) {
+        return new CreateJob(id, Status.FAILED, request, null, error, submittedAt, Instant.now());
+    }
+}
@@ -0,0 +1,54 @@
+package com.reliaquest.api.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Fields of an {@link Employee} that can be selected on their own, named as they appear in the API's JSON.
+ */
+public enum EmployeeField {
+    ID("id", Employee::id),
+    NAME("employeeName", Employee::employeeName),
+    SALARY("employeeSalary", Employee::employeeSalary),
+    AGE("employeeAge", Employee::employeeAge),
+    TITLE("employeeTitle", Employee::employeeTitle),
+    EMAIL("employeeEmail", Employee::employeeEmail);
+
+    private final String fieldName;
+    private final Function<Employee, Object> accessor;
+
+    EmployeeField(String fieldName, Function<Employee, Object> accessor) {
+        this.fieldName = fieldName;
+        this.accessor = accessor;
+    }
+
+    public String fieldName() {
+        return fieldName;
+    }
+
+    public Object get(Employee employee) {
+        return accessor.apply(employee);
+    }
+
+    /**
+     * The selected fields of {@code employee} keyed by their JSON names, in the order they were selected.
+     */
+    public static Map<String, Object> project(Employee employee, List<EmployeeField> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (EmployeeField field : fields) {
+            projected.put(field.fieldName, field.get(employee));
+        }
+        return projected;
+    }
+
+    public static EmployeeField fromName(String name) {
+        for (EmployeeField field : values()) {
+            if (field.fieldName.equalsIgnoreCase(name.trim())) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown employee field: " + name);
+    }
+}
@@ -0,0 +1,19 @@
+package com.reliaquest.api.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of the roster in id order.
+ *
+ * @param nextCursor opaque position right after the last employee on this page, null once the roster is exhausted
+ */
+public record EmployeePage<T>(List<T> employees, String nextCursor) {
+
+    public <R> EmployeePage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = employees.stream()
+                .<R>map(mapper)
+                .toList();
+        return new EmployeePage<>(mapped, nextCursor);
+    }
+}
@@ -0,0 +1,10 @@
+package com.reliaquest.api.model;
+
+import java.util.UUID;
+
+/**
+ * @param rank       1-based position by salary, employees with equal salaries share a rank
+ * @param percentile percentage of the roster earning less, counting equal salaries as half
+ */
+public record SalaryRank(UUID id, Integer salary, Integer rank, Integer total, Double percentile) {
+}
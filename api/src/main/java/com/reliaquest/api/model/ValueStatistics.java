@@ -0,0 +1,22 @@
+package com.reliaquest.api.model;
+
+import java.util.List;
+
+/**
+ * Summary of one numeric employee field. Quantiles and histogram counts are estimates; count, sum and mean are exact.
+ *
+ * @param min       lowest value, {@code null} when there are no employees
+ * @param histogram equal-width buckets spanning {@code min} to {@code max}
+ */
+public record ValueStatistics(Long count, Long sum, Double mean, Long min, Long max, List<Quantile> quantiles,
+                              List<Bucket> histogram) {
+
+    public record Quantile(Double quantile, Long value) {
+    }
+
+    /**
+     * @param upperBound inclusive
+     */
+    public record Bucket(Long lowerBound, Long upperBound, Long count) {
+    }
+}
@@ -1,67 +1,145 @@
 package com.reliaquest.api.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.reliaquest.api.client.EmployeeClient;
+import com.reliaquest.api.client.EmployeeStream;
+import com.reliaquest.api.client.RosterReader;
+import com.reliaquest.api.client.SingleFlight;
+import com.reliaquest.api.client.api.BulkItemResult;
 import com.reliaquest.api.client.api.DeleteEmployeeRequest;
+import com.reliaquest.api.client.api.EmployeeChange;
+import com.reliaquest.api.client.api.EmployeeChanges;
 import com.reliaquest.api.client.api.Response;
 import com.reliaquest.api.controller.api.CreateEmployeeRequest;
 import com.reliaquest.api.logging.Audited;
 import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.EmployeePage;
+import com.reliaquest.api.model.SalaryRank;
+import com.reliaquest.api.model.ValueStatistics;
+import com.reliaquest.api.service.exception.EmployeeNotCreatedException;
 import com.reliaquest.api.service.exception.EmployeeNotFoundException;
+import com.reliaquest.api.service.exception.InvalidCursorException;
+import com.reliaquest.api.service.exception.NoEmployeesException;
+import com.reliaquest.api.service.store.NGramIndex;
+import com.reliaquest.api.service.store.RosterChange;
+import com.reliaquest.api.service.store.RosterSnapshot;
+import com.reliaquest.api.service.store.RosterStore;
+import com.reliaquest.api.service.store.SnapshotFile;
 import feign.FeignException;
+import jakarta.annotation.PreDestroy;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.constraints.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.function.Function;
-
-import static java.util.stream.Collectors.toMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @AllArgsConstructor
 @Validated
 @Audited
+@Slf4j
 public class CachedCalculationService {
 
-    private static final Map<String, Employee> EMPLOYEES = new HashMap<>();
-    private static final TreeSet<Employee> TOP_EMPLOYEES =
-            new TreeSet<>(Comparator.comparingInt(Employee::employeeSalary).reversed());
+    private static final RosterStore ROSTER = new RosterStore(CachedCalculationService::invalidateSearches);
 
+    private static final int TOP_TEN = 10;
+    private static final long MAX_CACHE_WEIGHT = 1_000_000;
+    private static final int MAX_SELECTIVE_INVALIDATIONS = 100;
+    private static final int MAX_HISTOGRAM_BUCKETS = 1000;
+    private static final int MAX_PAGE_SIZE = 1000;
     @Getter
-    private static final Map<String, List<Employee>> SEARCH_CACHE = new HashMap<>();
-    private static final int MAX_CACHE_SIZE = 1000;
-    private static Integer HIGHEST_SALARY = -1;
+    private static final Cache<String, SearchResult> SEARCH_CACHE = Caffeine.newBuilder()
+            .maximumWeight(MAX_CACHE_WEIGHT)
+            .weigher((String term, SearchResult result) -> 1 + result.employees().size())
+            .executor(Runnable::run)
+            .recordStats()
+            .build();
 
 
     @Autowired
     private final EmployeeClient employeeClient;
 
+    private final RosterReader rosterReader;
+
+    private final RosterProperties rosterProperties;
+
+    private final SingleFlight singleFlight;
+
+    private final CacheManager cacheManager;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "roster-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @CacheEvict(value = "employees", allEntries = true)
     public List<Employee> getAll() {
-        if (EMPLOYEES.isEmpty()) {
-            Map<String, Employee> data = employeeClient.getAll().data()
-                    .stream()
-                    .collect(toMap(employee -> employee.id().toString(), Function.identity()));
-            EMPLOYEES.putAll(data);
+        return loadedSnapshot().employees().values();
+    }
+
+    /**
+     * Version of the roster reads are answered from, loading it first if needed. Anything derived from nothing but
+     * the roster stays valid for as long as this doesn't change.
+     */
+    public long getRosterVersion() {
+        return loadedSnapshot().version();
+    }
+
+    /**
+     * The current roster in id order, as a view of the snapshot rather than a copy, and without touching the caches.
+     */
+    public List<Employee> getRoster() {
+        return loadedSnapshot().employees().values();
+    }
+
+    /**
+     * A page of the roster in id order, continuing after {@code cursor} or from the start when it's null. Cursors
+     * hold the last id served rather than an offset, so paging stays consistent while the roster changes underneath.
+     */
+    public EmployeePage<Employee> getPage(String cursor, @Positive @Max(MAX_PAGE_SIZE) int size) {
+        RosterSnapshot snapshot = loadedSnapshot();
+        List<Employee> page = snapshot.page(decodeCursor(cursor), size);
+        if (page.size() < size) {
+            return new EmployeePage<>(page, null);
         }
 
-        return new ArrayList<>(EMPLOYEES.values());
+        String lastId = page.get(page.size() - 1).id().toString();
+        boolean exhausted = snapshot.employees().last()
+                .map(last -> last.getKey().equals(lastId))
+                .orElse(true);
+        return new EmployeePage<>(page, exhausted ? null : encodeCursor(lastId));
     }
 
     @Cacheable(value = "employees", key = "#id")
     public Optional<Employee> getById(@Valid @UUID String id) {
-        if (EMPLOYEES.containsKey(id)) {
-            return Optional.ofNullable(EMPLOYEES.get(id));
+        Optional<Employee> cached = ROSTER.current().get(id);
+        if (cached.isPresent()) {
+            return cached;
         } else {
             try {
-                Employee employee = employeeClient.getById(id)
+                Employee employee = singleFlight.execute("getById", id, () -> employeeClient.getById(id))
                         .data();
                 return Optional.of(employee);
             } catch (FeignException.FeignClientException.NotFound e) {
@@ -71,87 +149,103 @@ public class CachedCalculationService {
     }
 
     public List<Employee> getByName(String fragment) {
-        String searchTerm = fragment.toLowerCase();
-
-        if (SEARCH_CACHE.containsKey(searchTerm)) {
-            return SEARCH_CACHE.get(searchTerm);
-        }
+        String searchTerm = NGramIndex.fold(fragment);
+        RosterSnapshot snapshot = loadedSnapshot();
 
-        if (EMPLOYEES.isEmpty()) {
-            getAll();
+        SearchResult cached = SEARCH_CACHE.getIfPresent(searchTerm);
+        if (cached != null) {
+            return cached.employees();
         }
 
-        List<Employee> results = EMPLOYEES.values()
-                .stream()
-                .filter(emp -> emp.employeeName().toLowerCase().contains(searchTerm))
-                .toList();
+        SearchResult result = new SearchResult(snapshot.version(), snapshot.searchByName(searchTerm));
+        SEARCH_CACHE.put(searchTerm, result);
 
-        if (SEARCH_CACHE.size() >= MAX_CACHE_SIZE) {
-            SEARCH_CACHE.clear();
+        // a write published while we searched may have missed this entry when invalidating
+        if (ROSTER.current().version() != result.version()) {
+            SEARCH_CACHE.asMap().remove(searchTerm, result);
         }
 
-        SEARCH_CACHE.put(searchTerm, results);
-
-        return results;
+        return result.employees();
     }
 
     public List<String> getTopTenEmployees() {
-        if (EMPLOYEES.isEmpty()) {
-            getAll();
-        }
-
-        if (TOP_EMPLOYEES.size() < 10) {
-            for (Employee emp : EMPLOYEES.values()) {
-                TOP_EMPLOYEES.add(emp);
-                keepTenTopEmployees();
-            }
-        }
+        return getTopEmployees(TOP_TEN);
+    }
 
-        return TOP_EMPLOYEES.stream()
+    public List<String> getTopEmployees(@Positive int count) {
+        return loadedSnapshot().topEmployees(count)
+                .stream()
                 .map(Employee::employeeName)
                 .toList();
     }
 
-    public Integer getHighestSalary() {
-        if (HIGHEST_SALARY != -1) {
-            return HIGHEST_SALARY;
-        }
+    public Optional<SalaryRank> getSalaryRank(@Valid @UUID String id) {
+        return loadedSnapshot().salaryRank(id);
+    }
 
-        if (TOP_EMPLOYEES.size() < 10) {
-            getTopTenEmployees();
-        }
+    public ValueStatistics getSalaryStatistics(List<@DecimalMin("0.0") @DecimalMax("1.0") Double> quantiles,
+                                               @Positive @Max(MAX_HISTOGRAM_BUCKETS) int buckets) {
+        return loadedSnapshot().salaryStatistics(quantiles, buckets);
+    }
 
-        Integer employeeSalary = TOP_EMPLOYEES.first().employeeSalary();
-        HIGHEST_SALARY = employeeSalary;
+    public ValueStatistics getAgeStatistics(List<@DecimalMin("0.0") @DecimalMax("1.0") Double> quantiles,
+                                            @Positive @Max(MAX_HISTOGRAM_BUCKETS) int buckets) {
+        return loadedSnapshot().ageStatistics(quantiles, buckets);
+    }
 
-        return employeeSalary;
+    public Integer getHighestSalary() {
+        return loadedSnapshot().highestSalary()
+                .orElseThrow(NoEmployeesException::new);
     }
 
 
     public Employee create(CreateEmployeeRequest createEmployeeRequest) {
-        Employee newEmployee = employeeClient.create(createEmployeeRequest).data();
+        return created(employeeClient.create(createEmployeeRequest));
+    }
 
-        EMPLOYEES.put(newEmployee.id().toString(), newEmployee);
 
-        if (!TOP_EMPLOYEES.isEmpty()) {
-            Employee lastEmployee = TOP_EMPLOYEES.last();
-            Integer lastSalary = lastEmployee.employeeSalary();
-            if (newEmployee.employeeSalary() > lastSalary) {
-                TOP_EMPLOYEES.add(newEmployee);
-                keepTenTopEmployees();
-            }
-        }
+    /**
+     * Like {@link #create}, but a refused request fails right away instead of being retried, so the caller can
+     * queue it again.
+     */
+    public Employee createOnce(CreateEmployeeRequest createEmployeeRequest) {
+        return created(employeeClient.createOnce(createEmployeeRequest));
+    }
+
 
-        if (newEmployee.employeeSalary() > HIGHEST_SALARY) {
-            HIGHEST_SALARY = newEmployee.employeeSalary();
+    private Employee created(Response<Employee> response) {
+        Employee newEmployee = response.data();
+        if (newEmployee == null) {
+            // the retry fallback gave up on the upstream, or it answered without the employee
+            throw new EmployeeNotCreatedException(response.status());
         }
 
-        SEARCH_CACHE.clear();
+        ROSTER.put(newEmployee);
 
         return newEmployee;
     }
 
 
+    /**
+     * Creates a batch in a single upstream request. The upstream answers item by item, so one invalid request fails
+     * alone while the rest are created.
+     */
+    public List<BulkItemResult> createAll(List<CreateEmployeeRequest> createEmployeeRequests) {
+        Response<List<BulkItemResult>> response = employeeClient.createAll(createEmployeeRequests);
+        List<BulkItemResult> results = response.data();
+        if (results == null) {
+            throw new EmployeeNotCreatedException(response.status());
+        }
+
+        ROSTER.putAll(results.stream()
+                .filter(result -> result.status() == BulkItemResult.Status.CREATED)
+                .map(BulkItemResult::data)
+                .toList());
+
+        return results;
+    }
+
+
     @CacheEvict(value = "employees", allEntries = true)
     public String delete(String id) {
         Employee employee = getById(id)
@@ -167,27 +261,227 @@ public class CachedCalculationService {
             throw new RuntimeException(response.status());
         }
 
-        EMPLOYEES.remove(id);
-        TOP_EMPLOYEES.remove(employee);
-        SEARCH_CACHE.clear();
+        ROSTER.remove(id);
+
+        return name;
+    }
+
+    /**
+     * Where in the upstream change log the roster has caught up to, empty until it has been read at a known position.
+     */
+    public OptionalLong getUpstreamSequence() {
+        RosterSnapshot snapshot = ROSTER.current();
+        return snapshot.isSynced() ? OptionalLong.of(snapshot.upstreamSequence()) : OptionalLong.empty();
+    }
 
-        if (Objects.equals(HIGHEST_SALARY, employee.employeeSalary())) {
-            HIGHEST_SALARY = -1;
+    /**
+     * Applies a change pushed by the upstream. One the roster already reflects is skipped; one that doesn't follow
+     * on from where the roster is synced to means others were missed, so the roster catches up through the change
+     * log instead.
+     */
+    @CacheEvict(value = "employees", key = "#change.employee().id().toString()")
+    public void apply(EmployeeChange change) {
+        long sequence = change.sequence();
+        if (ROSTER.applyChanges(sequence - 1, sequence, rosterChanges(List.of(change))).isEmpty()
+                && ROSTER.current().upstreamSequence() < sequence) {
+            log.debug("Missed upstream changes before {}, catching up", sequence);
+            refresh();
         }
+    }
 
-        return name;
+    /**
+     * Records that the upstream had nothing to add up to {@code sequence}, which keeps a roster that is being kept
+     * current by pushed changes from counting as stale.
+     */
+    public void confirm(long sequence) {
+        ROSTER.applyChanges(sequence, sequence, List.of());
+    }
+
+    /**
+     * The roster as it is, without loading or revalidating it.
+     */
+    public RosterSnapshot getSnapshot() {
+        return ROSTER.current();
     }
 
-    private static void keepTenTopEmployees() {
-        if (TOP_EMPLOYEES.size() > 10) {
-            TOP_EMPLOYEES.pollLast();
+    /**
+     * Serves a roster saved by an earlier run until the upstream has been asked, unless one was loaded already, and
+     * starts revalidating it straight away.
+     */
+    public boolean restore(SnapshotFile saved) {
+        Optional<RosterSnapshot> restored = ROSTER.restore(saved);
+        restored.ifPresent(snapshot -> refreshInBackground());
+        return restored.isPresent();
+    }
+
+    public void refresh() {
+        if (sync().isEmpty()) {
+            log.debug("Roster changed during refresh, keeping the newer snapshot");
+        }
+    }
+
+    /**
+     * Refreshes on the background refresh thread, after anything already queued there, so a caller that must not
+     * block for a whole roster read can carry on and pick up once it completes.
+     */
+    public CompletableFuture<Void> refreshAsync() {
+        return CompletableFuture.runAsync(this::refresh, refreshExecutor);
+    }
+
+    private RosterSnapshot loadedSnapshot() {
+        RosterSnapshot snapshot = ROSTER.current();
+        if (!snapshot.loaded()) {
+            return load();
+        }
+
+        if (snapshot.isStale(rosterProperties.maxStaleness())) {
+            refreshInBackground();
+        }
+
+        return snapshot;
+    }
+
+    private RosterSnapshot load() {
+        RosterSnapshot snapshot = ROSTER.current();
+        while (!snapshot.loaded()) {
+            // only a roster replaced wholesale while reading, such as by a cleared cache, means reading it again
+            snapshot = ingest().orElseGet(ROSTER::current);
         }
+        return snapshot;
+    }
+
+    /**
+     * Streams the upstream roster straight into the store, with one read in flight at a time. Writes published while
+     * reading are replayed on top of it rather than starting over. Empty when the roster was replaced wholesale
+     * while reading.
+     */
+    private Optional<RosterSnapshot> ingest() {
+        return singleFlight.execute("getAll", this::readRoster);
+    }
+
+    /**
+     * Catches up with the upstream change log from where the roster was last read or synced, so a refresh costs as
+     * much as the changes since rather than the whole roster. Reads the roster again when there is no such position
+     * or the log no longer reaches back to it. Empty when another refresh got there first.
+     */
+    private Optional<RosterSnapshot> sync() {
+        return singleFlight.execute("getAll", () -> {
+            RosterSnapshot snapshot = ROSTER.current();
+            if (snapshot.isSynced()) {
+                long since = snapshot.upstreamSequence();
+                EmployeeChanges changes = employeeClient.getChanges(since).data();
+                if (!changes.truncated()) {
+                    Optional<RosterSnapshot> synced =
+                            ROSTER.applyChanges(since, changes.sequence(), rosterChanges(changes.changes()));
+                    // getById may have cached an employee since deleted, or the absence of one since created
+                    evictEmployees(changes.changes());
+                    return synced;
+                }
+                log.info("Upstream change log no longer reaches back to {}, reading the whole roster", since);
+            }
+            return readRoster();
+        });
+    }
+
+    private Optional<RosterSnapshot> readRoster() {
+        try (RosterStore.Read read = ROSTER.startRead(); EmployeeStream employees = rosterReader.open()) {
+            Optional<RosterSnapshot> replaced =
+                    read.replaceAll(employees, employees.changeSequence().orElse(RosterSnapshot.UNSYNCED));
+            Optional.ofNullable(cacheManager.getCache("employees")).ifPresent(cache -> cache.clear());
+            return replaced;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void evictEmployees(List<EmployeeChange> changes) {
+        Optional.ofNullable(cacheManager.getCache("employees"))
+                .ifPresent(cache -> changes.forEach(change -> cache.evict(change.employee().id().toString())));
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        refreshExecutor.execute(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                log.warn("Background roster refresh failed, serving the current snapshot: {}", e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
     }
 
     public static void invalidateCache() {
-        EMPLOYEES.clear();
-        TOP_EMPLOYEES.clear();
-        SEARCH_CACHE.clear();
-        HIGHEST_SALARY = -1;
+        ROSTER.clear();
+        SEARCH_CACHE.invalidateAll();
+    }
+
+    private static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    private static List<RosterChange> rosterChanges(List<EmployeeChange> changes) {
+        return changes.stream()
+                .map(change -> change.type() == EmployeeChange.Type.DELETED
+                        ? RosterChange.remove(change.employee().id().toString())
+                        : RosterChange.put(change.employee()))
+                .toList();
+    }
+
+    private static void invalidateSearches(List<Employee> changed) {
+        if (changed.size() > MAX_SELECTIVE_INVALIDATIONS) {
+            SEARCH_CACHE.invalidateAll();
+            return;
+        }
+
+        List<String> names = changed.stream()
+                .map(employee -> NGramIndex.fold(employee.employeeName()))
+                .toList();
+
+        // only terms found in a changed name are affected, so once the cache holds more terms than the names have
+        // substrings it's cheaper to evict those by key than to check every cached term
+        long substrings = names.stream()
+                .mapToLong(name -> (long) name.length() * (name.length() + 1) / 2)
+                .sum();
+        if (substrings < SEARCH_CACHE.estimatedSize()) {
+            Set<String> terms = new HashSet<>();
+            terms.add("");
+            for (String name : names) {
+                for (int start = 0; start < name.length(); start++) {
+                    for (int end = start + 1; end <= name.length(); end++) {
+                        terms.add(name.substring(start, end));
+                    }
+                }
+            }
+            SEARCH_CACHE.invalidateAll(terms);
+            return;
+        }
+
+        SEARCH_CACHE.asMap()
+                .keySet()
+                .removeIf(term -> names.stream().anyMatch(name -> name.contains(term)));
+    }
+
+    public record SearchResult(long version, List<Employee> employees) {
     }
 }
@@ -0,0 +1,19 @@
+package com.reliaquest.api.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param batchSize     queued creates the drainer takes at once, at most 1000 when sent in bulk
+ * @param queueCapacity creates accepted but not confirmed yet, beyond which new ones are turned away
+ * @param retention     how long a finished job's outcome stays available for polling
+ * @param bulk          send each batch as one bulk request rather than one request per create
+ */
+@ConfigurationProperties(prefix = "employee.create-jobs")
+public record CreateJobProperties(@DefaultValue("1000") int batchSize,
+                                  @DefaultValue("10000") int queueCapacity,
+                                  @DefaultValue("PT1H") Duration retention,
+                                  @DefaultValue("true") boolean bulk) {
+}
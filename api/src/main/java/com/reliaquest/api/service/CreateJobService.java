@@ -0,0 +1,265 @@
+package com.reliaquest.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reliaquest.api.client.RateLimitProperties;
+import com.reliaquest.api.client.RetryAfterInterval;
+import com.reliaquest.api.client.api.BulkItemResult;
+import com.reliaquest.api.controller.api.CreateEmployeeRequest;
+import com.reliaquest.api.model.CreateJob;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.service.exception.CreateQueueFullException;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.validator.constraints.UUID;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+/**
+ * Write-behind queue for creates. Callers get a job to poll right away, and a single drainer sends the queued
+ * creates upstream in batches, each as one bulk request unless {@link CreateJobProperties#bulk()} is off. When the
+ * upstream rate limit is spent, the drainer puts the rest of its batch back at the head of the queue and sleeps until
+ * the limit resets, as told by {@link com.reliaquest.api.client.RateLimitedException} or the 429's
+ * {@code Retry-After}. A burst of creates is then spread over the upstream's budget instead of turning into a storm
+ * of 429s.
+ *
+ * <p>Queued creates are listed by {@link #getPending()} rather than mixed into the roster reads. A pending create has
+ * no upstream id yet, and an {@link Employee}, which the read endpoints of {@code IEmployeeController} are bound to
+ * return, has no field to mark it as unconfirmed. Merged into {@code /employee} or a search, it would pass for a real
+ * employee that can't be fetched or deleted by its id, and count toward the salary statistics before the upstream
+ * accepted it.
+ */
+@Service
+@Validated
+@Slf4j
+public class CreateJobService implements SmartLifecycle {
+
+    private static final String DEPTH_METRIC = "employee.create.queue.depth";
+    private static final String DRAINED_METRIC = "employee.create.queue.drained";
+    private static final String WAIT_METRIC = "employee.create.queue.wait";
+
+    private final CachedCalculationService employeeService;
+    private final CreateJobProperties properties;
+    private final RateLimitProperties rateLimitProperties;
+    private final Map<String, CreateJob> pending = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Cache<String, CreateJob> completed;
+    private final BlockingDeque<PendingCreate> queue = new LinkedBlockingDeque<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Counter created;
+    private final Counter failed;
+    private final Timer waited;
+    private volatile ExecutorService drainer;
+
+    public CreateJobService(CachedCalculationService employeeService, CreateJobProperties properties,
+                            RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+        this.employeeService = employeeService;
+        this.properties = properties;
+        this.rateLimitProperties = rateLimitProperties;
+        this.completed = Caffeine.newBuilder()
+                .expireAfterWrite(properties.retention())
+                .build();
+
+        Gauge.builder(DEPTH_METRIC, depth, AtomicInteger::get)
+                .description("Creates accepted but not confirmed by the upstream yet")
+                .register(meterRegistry);
+        this.created = drained(meterRegistry, "created");
+        this.failed = drained(meterRegistry, "failed");
+        this.waited = Timer.builder(WAIT_METRIC)
+                .description("Time from accepting a create until the upstream confirmed or refused it")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        drainer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "create-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        drainer.execute(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        drainer.shutdownNow();
+        drainer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return drainer != null;
+    }
+
+    public CreateJob submit(CreateEmployeeRequest request) {
+        if (depth.incrementAndGet() > properties.queueCapacity()) {
+            depth.decrementAndGet();
+            throw new CreateQueueFullException(properties.queueCapacity());
+        }
+
+        CreateJob job = CreateJob.pending(request);
+        pending.put(job.id().toString(), job);
+        queue.add(new PendingCreate(job, System.nanoTime()));
+        return job;
+    }
+
+    public Optional<CreateJob> get(@Valid @UUID String id) {
+        CreateJob job = pending.get(id);
+        return job != null ? Optional.of(job) : Optional.ofNullable(completed.getIfPresent(id));
+    }
+
+    /**
+     * Creates not confirmed by the upstream yet, oldest first.
+     */
+    public List<CreateJob> getPending() {
+        synchronized (pending) {
+            return List.copyOf(pending.values());
+        }
+    }
+
+    private void drain() {
+        List<PendingCreate> batch = new ArrayList<>(properties.batchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.takeFirst());
+                queue.drainTo(batch, properties.batchSize() - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // the drainer is the only thread sending creates, losing it would leave every queued job pending
+                log.error("Draining a batch of {} create jobs failed", batch.size(), e);
+                failUnfinished(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<PendingCreate> batch) throws InterruptedException {
+        if (properties.bulk()) {
+            sendBulk(batch);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingCreate create = batch.get(i);
+            try {
+                Employee employee = employeeService.createOnce(create.job().request());
+                complete(create, create.job().succeeded(employee), created);
+            } catch (Exception e) {
+                if (refused(e)) {
+                    requeue(batch, i, retryAfter(e));
+                    return;
+                }
+                log.warn("Create job {} failed: {}", create.job().id(), e.getMessage());
+                complete(create, create.job().failed(e.getMessage()), failed);
+            }
+        }
+    }
+
+    private void sendBulk(List<PendingCreate> batch) throws InterruptedException {
+        List<BulkItemResult> results;
+        try {
+            results = employeeService.createAll(batch.stream()
+                    .map(create -> create.job().request())
+                    .toList());
+        } catch (Exception e) {
+            if (refused(e)) {
+                // thrown raw when the limiter is off, or when the upstream refuses sooner than it expected
+                requeue(batch, 0, retryAfter(e));
+                return;
+            }
+            log.warn("Bulk create of {} jobs failed: {}", batch.size(), e.getMessage());
+            batch.forEach(create -> complete(create, create.job().failed(e.getMessage()), failed));
+            return;
+        }
+
+        BulkItemResult[] byIndex = new BulkItemResult[batch.size()];
+        results.stream()
+                .filter(result -> result.index() >= 0 && result.index() < byIndex.length)
+                .forEach(result -> byIndex[result.index()] = result);
+        for (int i = 0; i < batch.size(); i++) {
+            PendingCreate create = batch.get(i);
+            BulkItemResult result = byIndex[i];
+            if (result != null && result.status() == BulkItemResult.Status.CREATED) {
+                complete(create, create.job().succeeded(result.data()), created);
+            } else {
+                String error = result == null ? "No result from upstream"
+                        : result.error() != null ? result.error()
+                        : Objects.toString(result.status(), "No status from upstream");
+                complete(create, create.job().failed(error), failed);
+            }
+        }
+    }
+
+    /**
+     * Puts the batch back at the head of the queue from {@code from} on, in order, and sleeps until the upstream
+     * limit resets.
+     */
+    private void requeue(List<PendingCreate> batch, int from, Duration retryAfter) throws InterruptedException {
+        for (int j = batch.size() - 1; j >= from; j--) {
+            queue.addFirst(batch.get(j));
+        }
+        log.debug("Upstream rate limit reached, pausing {} queued creates for {} ms", depth.get(),
+                retryAfter.toMillis());
+        Thread.sleep(retryAfter.toMillis());
+    }
+
+    /**
+     * Whether the upstream, or the limiter on its behalf, refused with a 429. Depending on the decoder that is a
+     * {@link FeignException.TooManyRequests} or a {@link feign.RetryableException}, so only the status is checked.
+     */
+    private static boolean refused(Exception e) {
+        return e instanceof FeignException feignException && feignException.status() == TOO_MANY_REQUESTS.value();
+    }
+
+    /**
+     * How long the upstream asked to wait, or the limiter's first backoff when it didn't say.
+     */
+    private Duration retryAfter(Exception e) {
+        return RetryAfterInterval.retryAfter(e).orElse(rateLimitProperties.initialBackoff());
+    }
+
+    private void failUnfinished(List<PendingCreate> batch, RuntimeException e) {
+        for (PendingCreate create : batch) {
+            String id = create.job().id().toString();
+            if (pending.containsKey(id) && !queue.contains(create)) {
+                complete(create, create.job().failed(Objects.requireNonNullElse(e.getMessage(), e.toString())),
+                        failed);
+            }
+        }
+    }
+
+    private void complete(PendingCreate create, CreateJob job, Counter outcome) {
+        depth.decrementAndGet();
+        outcome.increment();
+        waited.record(System.nanoTime() - create.enqueuedNanos(), TimeUnit.NANOSECONDS);
+
+        completed.put(job.id().toString(), job);
+        pending.remove(job.id().toString());
+    }
+
+    private static Counter drained(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(DRAINED_METRIC)
+                .description("Queued creates sent upstream, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record PendingCreate(CreateJob job, long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,84 @@
+package com.reliaquest.api.service;
+
+import com.reliaquest.api.service.store.RosterSnapshot;
+import com.reliaquest.api.service.store.SnapshotFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Saves the roster to disk every now and then and restores it on startup, before any request is served. A restarted
+ * API then answers straight away, instead of its first requests all waiting on, and stampeding, the upstream; the
+ * restored roster is revalidated in the background.
+ */
+@Component
+@ConditionalOnProperty(prefix = "employee.roster.snapshot", name = "path")
+@AllArgsConstructor
+@Slf4j
+public class RosterCheckpointer {
+
+    private final CachedCalculationService employeeService;
+
+    private final SnapshotProperties snapshotProperties;
+
+    /*
+     * Only what identifies the snapshot saved last, holding on to the snapshot itself would keep a superseded roster
+     * and its indexes alive until the next save.
+     */
+    private final AtomicReference<Saved> lastSaved = new AtomicReference<>();
+
+    @PostConstruct
+    void restore() {
+        Path path = snapshotProperties.path();
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            SnapshotFile saved = SnapshotFile.read(path);
+            int employees = saved.size();
+            if (employeeService.restore(saved)) {
+                log.info("Restored {} employees saved at {} in {} ms", employees, saved.savedAt(),
+                        Duration.ofNanos(System.nanoTime() - start).toMillis());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable roster snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${employee.roster.snapshot.interval:PT1M}",
+            fixedDelayString = "${employee.roster.snapshot.interval:PT1M}")
+    public void save() {
+        RosterSnapshot snapshot = employeeService.getSnapshot();
+        Saved saved = new Saved(snapshot.version(), snapshot.upstreamSequence());
+        if (!snapshot.loaded() || saved.equals(lastSaved.get())) {
+            return;
+        }
+
+        try {
+            SnapshotFile.write(snapshot, snapshotProperties.path());
+            lastSaved.set(saved);
+        } catch (IOException e) {
+            log.warn("Saving the roster to {} failed: {}", snapshotProperties.path(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        save();
+    }
+
+    private record Saved(long version, long upstreamSequence) {
+    }
+}
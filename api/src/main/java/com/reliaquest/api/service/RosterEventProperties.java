@@ -0,0 +1,20 @@
+package com.reliaquest.api.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param reconnectDelay    wait before reconnecting after the subscription dropped
+ * @param maxReconnectDelay cap for the reconnect wait, which doubles with every attempt that gets nothing through
+ * @param connectTimeout    limit for connecting and for the upstream to start answering
+ * @param idleTimeout       silence after which the connection counts as dead, a few of the upstream's heartbeat
+ *                          intervals ({@code mock.changes.heartbeat-interval})
+ */
+@ConfigurationProperties(prefix = "employee.events")
+public record RosterEventProperties(@DefaultValue("PT1S") Duration reconnectDelay,
+                                    @DefaultValue("PT1M") Duration maxReconnectDelay,
+                                    @DefaultValue("PT5S") Duration connectTimeout,
+                                    @DefaultValue("PT45S") Duration idleTimeout) {
+}
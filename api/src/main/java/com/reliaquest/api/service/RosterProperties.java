@@ -0,0 +1,15 @@
+package com.reliaquest.api.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param refreshInterval how often the roster is revalidated against the upstream in the background
+ * @param maxStaleness    age after which a read kicks off an immediate background revalidation
+ */
+@ConfigurationProperties(prefix = "employee.roster")
+public record RosterProperties(@DefaultValue("PT5M") Duration refreshInterval,
+                               @DefaultValue("PT10M") Duration maxStaleness) {
+}
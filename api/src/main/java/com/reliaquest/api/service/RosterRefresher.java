@@ -0,0 +1,44 @@
+package com.reliaquest.api.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revalidates the roster every {@link RosterProperties#refreshInterval()} while no change stream keeps it current.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class RosterRefresher implements SchedulingConfigurer {
+
+    private final CachedCalculationService employeeService;
+
+    private final ObjectProvider<RosterSubscriber> rosterSubscriber;
+
+    private final RosterProperties rosterProperties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::refresh, rosterProperties.refreshInterval(),
+                rosterProperties.refreshInterval()));
+    }
+
+    public void refresh() {
+        RosterSubscriber subscriber = rosterSubscriber.getIfAvailable();
+        if (subscriber != null && subscriber.isConnected()) {
+            // pushed changes keep the roster current
+            return;
+        }
+
+        try {
+            employeeService.refresh();
+        } catch (Exception e) {
+            log.warn("Scheduled roster refresh failed, serving the current snapshot: {}", e.getMessage());
+        }
+    }
+}
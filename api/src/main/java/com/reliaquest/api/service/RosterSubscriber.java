@@ -0,0 +1,216 @@
+package com.reliaquest.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.client.ServerSentEvents;
+import com.reliaquest.api.client.api.EmployeeChange;
+import com.reliaquest.api.model.Employee;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the roster in step with the upstream through its server-sent change events, so changes arrive as they
+ * happen without polling. Subscribes once the roster is synced to a position in the upstream change log, and after a
+ * dropped connection resumes right after the last change applied. While it isn't connected, the scheduled refresh
+ * covers for it. The upstream sends a heartbeat every few seconds, so a connection that has been silent for
+ * {@link RosterEventProperties#idleTimeout()} is taken for dead, as a half-open one would otherwise never be noticed.
+ * When the upstream resets the stream, the roster is read again on the background refresh thread and the
+ * subscription resumes from wherever that read left it.
+ */
+@Component
+@ConditionalOnProperty(prefix = "employee.events", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class RosterSubscriber implements SmartLifecycle {
+
+    private static final String RESET_EVENT = "reset";
+    private static final String HEARTBEAT_EVENT = "heartbeat";
+
+    private final CachedCalculationService employeeService;
+    private final RosterEventProperties properties;
+    private final ObjectMapper objectMapper;
+    private final URI eventsUri;
+    private final HttpClient httpClient;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Stream<String> events;
+    private volatile long lastEventNanos;
+    private CompletableFuture<Void> resetRefresh;
+    private Thread thread;
+    private ScheduledExecutorService watchdog;
+
+    public RosterSubscriber(CachedCalculationService employeeService, RosterEventProperties properties,
+                            ObjectMapper objectMapper, @Value("${employee.url}") String employeeUrl) {
+        this.employeeService = employeeService;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.eventsUri = URI.create(employeeUrl + "/events");
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.connectTimeout())
+                .build();
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "roster-events");
+        thread.setDaemon(true);
+        thread.start();
+
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread watcher = new Thread(runnable, "roster-events-watchdog");
+            watcher.setDaemon(true);
+            return watcher;
+        });
+        long period = Math.max(1, properties.idleTimeout().toMillis() / 3);
+        watchdog.scheduleWithFixedDelay(this::closeIfIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        watchdog.shutdownNow();
+        Stream<String> subscription = events;
+        if (subscription != null) {
+            subscription.close();
+        }
+        thread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        Duration backoff = properties.reconnectDelay();
+        while (running) {
+            Duration wait = properties.reconnectDelay();
+            OptionalLong sequence = employeeService.getUpstreamSequence();
+            if (sequence.isPresent()) {
+                boolean received = false;
+                try {
+                    received = subscribe(sequence.getAsLong());
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Upstream change events dropped: {}", e.getMessage());
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    connected = false;
+                }
+                backoff = received ? properties.reconnectDelay() : capped(backoff.multipliedBy(2));
+                wait = backoff;
+
+                CompletableFuture<Void> refresh = resetRefresh;
+                resetRefresh = null;
+                if (refresh != null) {
+                    try {
+                        refresh.get();
+                        // resume right after the roster just read
+                        continue;
+                    } catch (ExecutionException e) {
+                        log.warn("Roster refresh after an upstream reset failed: {}", e.getCause().getMessage());
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+
+            try {
+                Thread.sleep(wait.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void closeIfIdle() {
+        Stream<String> subscription = events;
+        if (subscription != null && System.nanoTime() - lastEventNanos > properties.idleTimeout().toNanos()) {
+            log.info("No upstream change events for {}, reconnecting", properties.idleTimeout());
+            // unblocks the reading thread, which then reconnects as after any other drop
+            subscription.close();
+        }
+    }
+
+    private Duration capped(Duration backoff) {
+        return backoff.compareTo(properties.maxReconnectDelay()) < 0 ? backoff : properties.maxReconnectDelay();
+    }
+
+    /**
+     * Applies events until the connection drops. Returns whether any got through, so a connection that keeps being
+     * refused backs off.
+     */
+    private boolean subscribe(long after) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(eventsUri)
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", Long.toString(after))
+                .timeout(properties.connectTimeout())
+                .build();
+        HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Upstream refused change events with status " + response.statusCode());
+            }
+            lastEventNanos = System.nanoTime();
+            events = lines;
+            connected = true;
+            log.info("Subscribed to upstream change events after {}", after);
+
+            boolean[] received = {false};
+            // stops at the first line after a reset, leaving the rest to the subscription that follows the refresh
+            ServerSentEvents.read(lines.takeWhile(line -> resetRefresh == null).iterator(), event -> {
+                lastEventNanos = System.nanoTime();
+                handle(event);
+                received[0] = true;
+            });
+            return received[0];
+        } finally {
+            events = null;
+        }
+    }
+
+    private void handle(ServerSentEvents.Event event) {
+        switch (event.name()) {
+            case HEARTBEAT_EVENT -> employeeService.confirm(Long.parseLong(event.data().trim()));
+            // a whole roster read would hold up this thread long enough for the watchdog to take it for dead
+            case RESET_EVENT -> resetRefresh = employeeService.refreshAsync();
+            default -> {
+                EmployeeChange.Type type = EmployeeChange.Type.valueOf(event.name().toUpperCase(Locale.ROOT));
+                employeeService.apply(new EmployeeChange(Long.parseLong(event.id()), type, employee(event.data())));
+            }
+        }
+    }
+
+    private Employee employee(String json) {
+        try {
+            return objectMapper.readValue(json, Employee.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
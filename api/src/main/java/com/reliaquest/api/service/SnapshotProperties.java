@@ -0,0 +1,16 @@
+package com.reliaquest.api.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @param path     file the roster is saved to and restored from on startup; nothing is saved when unset
+ * @param interval how often a changed roster is saved
+ */
+@ConfigurationProperties(prefix = "employee.roster.snapshot")
+public record SnapshotProperties(Path path,
+                                 @DefaultValue("PT1M") Duration interval) {
+}
@@ -0,0 +1,13 @@
+package com.reliaquest.api.service.exception;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+@ResponseStatus(code = SERVICE_UNAVAILABLE)
+public class CreateQueueFullException extends RuntimeException {
+
+    public CreateQueueFullException(int capacity) {
+        super(String.format("Create queue is full: %d jobs waiting", capacity));
+    }
+}
@@ -0,0 +1,13 @@
+package com.reliaquest.api.service.exception;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+@ResponseStatus(code = SERVICE_UNAVAILABLE)
+public class EmployeeNotCreatedException extends RuntimeException {
+
+    public EmployeeNotCreatedException(String message) {
+        super(String.format("Employee not created: %s", message));
+    }
+}
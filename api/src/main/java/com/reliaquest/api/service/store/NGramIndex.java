@@ -0,0 +1,141 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.Employee;
+
+import java.util.*;
+
+/**
+ * Persistent trigram index over case-folded employee names. Postings map employee id to the folded name, so a
+ * substring query walks only the shortest posting list of its grams and verifies the candidates in place.
+ */
+public final class NGramIndex {
+
+    public static final int GRAM_SIZE = 3;
+
+    private static final NGramIndex EMPTY = new NGramIndex(PersistentTreeMap.empty());
+
+    private final PersistentTreeMap<String, PersistentTreeMap<String, String>> postings;
+
+    private NGramIndex(PersistentTreeMap<String, PersistentTreeMap<String, String>> postings) {
+        this.postings = postings;
+    }
+
+    public static NGramIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds the index in bulk. Employees come in id order, so every posting list is collected already sorted and
+     * turned into a tree in one linear pass.
+     */
+    static NGramIndex of(PersistentTreeMap<String, Employee> employees) {
+        Map<String, Posting> postings = new HashMap<>();
+        for (Map.Entry<String, Employee> entry : employees) {
+            String name = fold(entry.getValue().employeeName());
+            for (String gram : grams(name)) {
+                postings.computeIfAbsent(gram, ignored -> new Posting()).add(entry.getKey(), name);
+            }
+        }
+
+        SortedMap<String, PersistentTreeMap<String, String>> index = new TreeMap<>();
+        postings.forEach((gram, posting) -> index.put(gram, posting.toMap()));
+        return new NGramIndex(PersistentTreeMap.copyOf(index));
+    }
+
+    public static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    public List<Employee> search(String fragment, PersistentTreeMap<String, Employee> employees) {
+        String term = fold(fragment);
+        if (term.length() < GRAM_SIZE) {
+            return scan(term, employees);
+        }
+
+        PersistentTreeMap<String, String> shortest = null;
+        for (String gram : grams(term)) {
+            PersistentTreeMap<String, String> posting = postings.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            if (shortest == null || posting.size() < shortest.size()) {
+                shortest = posting;
+            }
+        }
+
+        List<Employee> results = new ArrayList<>();
+        for (Map.Entry<String, String> candidate : shortest) {
+            if (candidate.getValue().contains(term)) {
+                results.add(employees.get(candidate.getKey()));
+            }
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    NGramIndex add(Employee employee) {
+        String id = employee.id().toString();
+        String name = fold(employee.employeeName());
+
+        PersistentTreeMap<String, PersistentTreeMap<String, String>> updated = postings;
+        for (String gram : grams(name)) {
+            PersistentTreeMap<String, String> posting = updated.get(gram);
+            updated = updated.put(gram, (posting == null ? PersistentTreeMap.<String, String>empty() : posting)
+                    .put(id, name));
+        }
+        return updated == postings ? this : new NGramIndex(updated);
+    }
+
+    NGramIndex remove(Employee employee) {
+        String id = employee.id().toString();
+
+        PersistentTreeMap<String, PersistentTreeMap<String, String>> updated = postings;
+        for (String gram : grams(fold(employee.employeeName()))) {
+            PersistentTreeMap<String, String> posting = updated.get(gram);
+            if (posting == null) {
+                continue;
+            }
+            posting = posting.remove(id);
+            updated = posting.isEmpty() ? updated.remove(gram) : updated.put(gram, posting);
+        }
+        return updated == postings ? this : new NGramIndex(updated);
+    }
+
+    private static List<Employee> scan(String term, PersistentTreeMap<String, Employee> employees) {
+        return employees.values()
+                .stream()
+                .filter(employee -> fold(employee.employeeName()).contains(term))
+                .toList();
+    }
+
+    /**
+     * Ids and folded names of one gram, in the order they were added.
+     */
+    private static final class Posting {
+
+        private Object[] ids = new Object[4];
+        private Object[] names = new Object[4];
+        private int size;
+
+        void add(String id, String name) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                names = Arrays.copyOf(names, size * 2);
+            }
+            ids[size] = id;
+            names[size] = name;
+            size++;
+        }
+
+        PersistentTreeMap<String, String> toMap() {
+            return PersistentTreeMap.copyOf(Comparator.<String>naturalOrder(), ids, names, size);
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,377 @@
+package com.reliaquest.api.service.store;
+
+import java.util.*;
+
+/**
+ * Immutable sorted map backed by a size-augmented treap. Every update copies only the path from the root to the
+ * touched node, so older versions stay valid and can be read concurrently without locking or copying.
+ */
+public final class PersistentTreeMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+    private final Comparator<? super K> comparator;
+    private final Node<K, V> root;
+
+    private PersistentTreeMap(Comparator<? super K> comparator, Node<K, V> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    public static <K extends Comparable<? super K>, V> PersistentTreeMap<K, V> empty() {
+        return new PersistentTreeMap<>(Comparator.naturalOrder(), null);
+    }
+
+    public static <K, V> PersistentTreeMap<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentTreeMap<>(comparator, null);
+    }
+
+    /**
+     * Builds a map from already sorted entries in linear time, instead of inserting them one at a time.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentTreeMap<K, V> copyOf(SortedMap<K, V> sorted) {
+        Comparator<? super K> comparator = sorted.comparator() != null
+                ? sorted.comparator()
+                : (Comparator<? super K>) Comparator.naturalOrder();
+
+        int size = sorted.size();
+        Object[] keys = new Object[size];
+        Object[] values = new Object[size];
+        int index = 0;
+        for (Map.Entry<K, V> entry : sorted.entrySet()) {
+            keys[index] = entry.getKey();
+            values[index] = entry.getValue();
+            index++;
+        }
+        return copyOf(comparator, keys, values, size);
+    }
+
+    /**
+     * Like {@link #copyOf(SortedMap)}, for the first {@code size} keys, already in {@code comparator} order and
+     * distinct, and their values.
+     */
+    static <K, V> PersistentTreeMap<K, V> copyOf(Comparator<? super K> comparator, Object[] keys, Object[] values,
+                                                int size) {
+        int[] priorities = new int[size];
+        for (int i = 0; i < size; i++) {
+            Objects.requireNonNull(values[i]);
+            priorities[i] = priority(keys[i]);
+        }
+
+        // Cartesian tree construction: a stack holds the right spine of the treap built so far
+        int[] left = new int[size];
+        int[] right = new int[size];
+        Arrays.fill(left, -1);
+        Arrays.fill(right, -1);
+        int[] spine = new int[size];
+        int depth = 0;
+        for (int i = 0; i < size; i++) {
+            int last = -1;
+            while (depth > 0 && priorities[spine[depth - 1]] < priorities[i]) {
+                last = spine[--depth];
+            }
+            left[i] = last;
+            if (depth > 0) {
+                right[spine[depth - 1]] = i;
+            }
+            spine[depth++] = i;
+        }
+
+        Node<K, V> root = size == 0 ? null : build(spine[0], keys, values, priorities, left, right);
+        return new PersistentTreeMap<>(comparator, root);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) {
+                return node.value;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    public PersistentTreeMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(value);
+        Node<K, V> updated = insert(root, key, value, priority(key));
+        return updated == root ? this : new PersistentTreeMap<>(comparator, updated);
+    }
+
+    public PersistentTreeMap<K, V> remove(K key) {
+        Node<K, V> updated = delete(root, key);
+        return updated == root ? this : new PersistentTreeMap<>(comparator, updated);
+    }
+
+    public Map.Entry<K, V> entryAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        Node<K, V> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Number of keys strictly less than {@code key}; the key itself doesn't have to be present.
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node<K, V> node = root;
+        while (node != null) {
+            if (comparator.compare(key, node.key) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    public Optional<Map.Entry<K, V>> first() {
+        Node<K, V> node = root;
+        while (node != null && node.left != null) {
+            node = node.left;
+        }
+        return Optional.ofNullable(node);
+    }
+
+    public Optional<Map.Entry<K, V>> last() {
+        Node<K, V> node = root;
+        while (node != null && node.right != null) {
+            node = node.right;
+        }
+        return Optional.ofNullable(node);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(root, null, comparator);
+    }
+
+    /**
+     * Iterates the entries whose keys are strictly greater than {@code key}, in order.
+     */
+    public Iterator<Map.Entry<K, V>> iteratorAfter(K key) {
+        return new EntryIterator<>(root, key, comparator);
+    }
+
+    /**
+     * Read-only list view of the values in key order. Iteration walks the tree in place; nothing is copied.
+     */
+    public List<V> values() {
+        return new AbstractList<>() {
+            @Override
+            public V get(int index) {
+                return entryAt(index).getValue();
+            }
+
+            @Override
+            public int size() {
+                return PersistentTreeMap.this.size();
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                Iterator<Map.Entry<K, V>> entries = PersistentTreeMap.this.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        return entries.next().getValue();
+                    }
+                };
+            }
+        };
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value, int priority) {
+        if (node == null) {
+            return new Node<>(key, value, priority, null, null);
+        }
+        int cmp = comparator.compare(key, node.key);
+        if (cmp == 0) {
+            return value.equals(node.value) ? node : new Node<>(node.key, value, node.priority, node.left, node.right);
+        }
+        if (cmp < 0) {
+            Node<K, V> left = insert(node.left, key, value, priority);
+            if (left == node.left) {
+                return node;
+            }
+            if (left.priority > node.priority) {
+                return new Node<>(left.key, left.value, left.priority, left.left,
+                        new Node<>(node.key, node.value, node.priority, left.right, node.right));
+            }
+            return new Node<>(node.key, node.value, node.priority, left, node.right);
+        }
+        Node<K, V> right = insert(node.right, key, value, priority);
+        if (right == node.right) {
+            return node;
+        }
+        if (right.priority > node.priority) {
+            return new Node<>(right.key, right.value, right.priority,
+                    new Node<>(node.key, node.value, node.priority, node.left, right.left), right.right);
+        }
+        return new Node<>(node.key, node.value, node.priority, node.left, right);
+    }
+
+    private Node<K, V> delete(Node<K, V> node, K key) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(key, node.key);
+        if (cmp < 0) {
+            Node<K, V> left = delete(node.left, key);
+            return left == node.left ? node : new Node<>(node.key, node.value, node.priority, left, node.right);
+        }
+        if (cmp > 0) {
+            Node<K, V> right = delete(node.right, key);
+            return right == node.right ? node : new Node<>(node.key, node.value, node.priority, node.left, right);
+        }
+        return merge(node.left, node.right);
+    }
+
+    private static <K, V> Node<K, V> merge(Node<K, V> lower, Node<K, V> upper) {
+        if (lower == null) {
+            return upper;
+        }
+        if (upper == null) {
+            return lower;
+        }
+        if (lower.priority > upper.priority) {
+            return new Node<>(lower.key, lower.value, lower.priority, lower.left, merge(lower.right, upper));
+        }
+        return new Node<>(upper.key, upper.value, upper.priority, merge(lower, upper.left), upper.right);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V> build(int index, Object[] keys, Object[] values, int[] priorities,
+                                           int[] left, int[] right) {
+        Node<K, V> leftChild = left[index] < 0 ? null : build(left[index], keys, values, priorities, left, right);
+        Node<K, V> rightChild = right[index] < 0 ? null : build(right[index], keys, values, priorities, left, right);
+        return new Node<>((K) keys[index], (V) values[index], priorities[index], leftChild, rightChild);
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int priority(Object key) {
+        // murmur3 finalizer, spreads poor hash codes so the treap stays balanced
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static final class Node<K, V> implements Map.Entry<K, V> {
+
+        private final K key;
+        private final V value;
+        private final int priority;
+        private final int size;
+        private final Node<K, V> left;
+        private final Node<K, V> right;
+
+        private Node(K key, V value, int priority, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+        private final Deque<Node<K, V>> stack = new ArrayDeque<>();
+
+        private EntryIterator(Node<K, V> root, K after, Comparator<? super K> comparator) {
+            Node<K, V> node = root;
+            if (after == null) {
+                pushLeft(node);
+                return;
+            }
+            while (node != null) {
+                if (comparator.compare(after, node.key) < 0) {
+                    stack.push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = stack.pop();
+            pushLeft(node.right);
+            return node;
+        }
+
+        private void pushLeft(Node<K, V> node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.Employee;
+
+/**
+ * One upstream change to the roster: the employee as it now is, or just the id of one that was removed.
+ */
+public record RosterChange(String id, Employee employee) {
+
+    public static RosterChange put(Employee employee) {
+        return new RosterChange(employee.id().toString(), employee);
+    }
+
+    public static RosterChange remove(String id) {
+        return new RosterChange(id, null);
+    }
+
+    public boolean removed() {
+        return employee == null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.Employee;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Applies a batch of changes to a snapshot, updating every derived view incrementally per changed employee.
+ */
+final class RosterMutation {
+
+    private final RosterSnapshot base;
+    private List<Employee> changes = new ArrayList<>();
+
+    private PersistentTreeMap<String, Employee> employees;
+    private NGramIndex nameIndex;
+    private PersistentTreeMap<SalaryKey, Employee> salaryIndex;
+    private ValueSketch.Builder salaries;
+    private ValueSketch.Builder ages;
+    private boolean loaded;
+    private Instant refreshedAt;
+    private long upstreamSequence;
+
+    RosterMutation(RosterSnapshot base) {
+        this.base = base;
+        this.employees = base.employees();
+        this.nameIndex = base.nameIndex();
+        this.salaryIndex = base.salaryIndex();
+        this.loaded = base.loaded();
+        this.refreshedAt = base.refreshedAt();
+        this.upstreamSequence = base.upstreamSequence();
+    }
+
+    /**
+     * Employees added, removed or replaced by this mutation; replaced employees appear with both their old and new
+     * state.
+     */
+    List<Employee> changes() {
+        return changes;
+    }
+
+    RosterMutation put(Employee employee) {
+        String id = employee.id().toString();
+        Employee previous = employees.get(id);
+        if (employee.equals(previous)) {
+            return this;
+        }
+
+        employees = employees.put(id, employee);
+
+        if (previous == null || !previous.employeeName().equals(employee.employeeName())) {
+            if (previous != null) {
+                nameIndex = nameIndex.remove(previous);
+            }
+            nameIndex = nameIndex.add(employee);
+        }
+
+        if (previous != null) {
+            salaryIndex = salaryIndex.remove(SalaryKey.of(previous));
+            uncount(previous);
+            changes.add(previous);
+        }
+        salaryIndex = salaryIndex.put(SalaryKey.of(employee), employee);
+        count(employee);
+        changes.add(employee);
+        return this;
+    }
+
+    RosterMutation remove(String id) {
+        Employee previous = employees.get(id);
+        if (previous == null) {
+            return this;
+        }
+
+        employees = employees.remove(id);
+        nameIndex = nameIndex.remove(previous);
+        salaryIndex = salaryIndex.remove(SalaryKey.of(previous));
+        uncount(previous);
+        changes.add(previous);
+        return this;
+    }
+
+    /**
+     * Replaces the whole roster, consuming {@code replacement} once as it arrives. Unchanged employees cost a lookup
+     * and nothing else, and which of the current ones were seen is tracked as one bit per employee, so a refresh needs
+     * no more memory than the changes it brings.
+     */
+    RosterMutation replaceAll(Iterator<Employee> replacement) {
+        if (employees.isEmpty()) {
+            RosterSnapshot built = RosterSnapshot.of(base.version(), replacement, refreshedAt, upstreamSequence);
+            employees = built.employees();
+            nameIndex = built.nameIndex();
+            salaryIndex = built.salaryIndex();
+            salaries = built.salarySketch().toBuilder();
+            ages = built.ageSketch().toBuilder();
+            // everyone is new, a view saves copying them all
+            changes = employees.values();
+            return refreshed();
+        }
+
+        PersistentTreeMap<String, Employee> current = base.employees();
+        BitSet seen = new BitSet(current.size());
+        while (replacement.hasNext()) {
+            Employee employee = replacement.next();
+            String id = employee.id().toString();
+            if (current.containsKey(id)) {
+                seen.set(current.rank(id));
+            }
+            put(employee);
+        }
+
+        int rank = 0;
+        for (Map.Entry<String, Employee> entry : current) {
+            if (!seen.get(rank++)) {
+                remove(entry.getKey());
+            }
+        }
+        return refreshed();
+    }
+
+    /**
+     * Applies upstream changes in the order they happened. Both kinds are idempotent, so replaying changes the
+     * snapshot already reflects, such as local writes or those made while the roster was being read, does no harm.
+     */
+    RosterMutation replay(List<RosterChange> upstreamChanges) {
+        for (RosterChange change : upstreamChanges) {
+            if (change.removed()) {
+                remove(change.id());
+            } else {
+                put(change.employee());
+            }
+        }
+        return refreshed();
+    }
+
+    /**
+     * Records that the roster now reflects the upstream change log up to {@code sequence}.
+     */
+    RosterMutation syncedTo(long sequence) {
+        upstreamSequence = sequence;
+        return this;
+    }
+
+    RosterMutation refreshedAt(Instant refreshedAt) {
+        this.refreshedAt = refreshedAt;
+        return this;
+    }
+
+    RosterSnapshot apply() {
+        if (employees == base.employees()) {
+            return loaded == base.loaded() && refreshedAt.equals(base.refreshedAt())
+                    && upstreamSequence == base.upstreamSequence()
+                    ? base
+                    : new RosterSnapshot(base.version(), loaded, employees, nameIndex, salaryIndex,
+                            base.salarySketch(), base.ageSketch(), refreshedAt, upstreamSequence);
+        }
+
+        return new RosterSnapshot(base.version() + 1, loaded, employees, nameIndex, salaryIndex,
+                salaries == null ? base.salarySketch() : salaries.build(),
+                ages == null ? base.ageSketch() : ages.build(), refreshedAt, upstreamSequence);
+    }
+
+    private void count(Employee employee) {
+        sketches();
+        salaries.add(employee.employeeSalary());
+        ages.add(employee.employeeAge());
+    }
+
+    private void uncount(Employee employee) {
+        sketches();
+        salaries.remove(employee.employeeSalary());
+        ages.remove(employee.employeeAge());
+    }
+
+    private void sketches() {
+        // copied on first use, so mutations that change nothing don't pay for it
+        if (salaries == null) {
+            salaries = base.salarySketch().toBuilder();
+            ages = base.ageSketch().toBuilder();
+        }
+    }
+
+    private RosterMutation refreshed() {
+        loaded = true;
+        refreshedAt = Instant.now();
+        return this;
+    }
+}
@@ -0,0 +1,175 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.SalaryRank;
+import com.reliaquest.api.model.ValueStatistics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Immutable, versioned view of the roster together with its derived views. Writes go through
+ * {@link RosterMutation} and produce a new snapshot, leaving this one untouched.
+ *
+ * @param upstreamSequence position in the upstream change log this snapshot has caught up to, or {@link #UNSYNCED}
+ */
+public record RosterSnapshot(long version,
+                             boolean loaded,
+                             PersistentTreeMap<String, Employee> employees,
+                             NGramIndex nameIndex,
+                             PersistentTreeMap<SalaryKey, Employee> salaryIndex,
+                             ValueSketch salarySketch,
+                             ValueSketch ageSketch,
+                             Instant refreshedAt,
+                             long upstreamSequence) {
+
+    public static final long UNSYNCED = -1;
+
+    public static RosterSnapshot empty() {
+        return new RosterSnapshot(0, false, PersistentTreeMap.empty(), NGramIndex.empty(),
+                PersistentTreeMap.empty(SalaryKey.HIGHEST_FIRST), ValueSketch.empty(), ValueSketch.empty(),
+                Instant.EPOCH, UNSYNCED);
+    }
+
+    /**
+     * Builds a snapshot in bulk, consuming {@code employees} once as they arrive. Each index is built bottom-up from
+     * sorted entries, which is far cheaper than inserting one at a time, and each batch of entries becomes garbage as
+     * soon as its index exists, so at most one is alive next to the snapshot.
+     */
+    static RosterSnapshot of(long version, Iterator<Employee> employees, Instant refreshedAt, long upstreamSequence) {
+        PersistentTreeMap<String, Employee> roster = byId(employees);
+
+        List<Map.Entry<SalaryKey, Employee>> bySalary = new ArrayList<>(roster.size());
+        ValueSketch.Builder salaries = ValueSketch.empty().toBuilder();
+        ValueSketch.Builder ages = ValueSketch.empty().toBuilder();
+        for (Map.Entry<String, Employee> entry : roster) {
+            Employee employee = entry.getValue();
+            bySalary.add(Map.entry(new SalaryKey(employee.employeeSalary(), entry.getKey()), employee));
+            salaries.add(employee.employeeSalary());
+            ages.add(employee.employeeAge());
+        }
+        bySalary.sort(Map.Entry.comparingByKey(SalaryKey.HIGHEST_FIRST));
+
+        return new RosterSnapshot(version, true, roster, NGramIndex.of(roster),
+                sorted(SalaryKey.HIGHEST_FIRST, bySalary), salaries.build(), ages.build(), refreshedAt,
+                upstreamSequence);
+    }
+
+    private static PersistentTreeMap<String, Employee> byId(Iterator<Employee> employees) {
+        List<Map.Entry<String, Employee>> byId = new ArrayList<>();
+        while (employees.hasNext()) {
+            Employee employee = employees.next();
+            byId.add(Map.entry(employee.id().toString(), employee));
+        }
+        // stable, and linear when the employees already come in id order, as a saved roster does
+        byId.sort(Map.Entry.comparingByKey());
+        return sorted(Comparator.naturalOrder(), byId);
+    }
+
+    /**
+     * Turns entries sorted by key into a map; of entries with equal keys the last one wins.
+     */
+    @SuppressWarnings("unchecked")
+    private static <K, V> PersistentTreeMap<K, V> sorted(Comparator<? super K> comparator,
+                                                         List<Map.Entry<K, V>> entries) {
+        Object[] keys = new Object[entries.size()];
+        Object[] values = new Object[entries.size()];
+        int size = 0;
+        for (Map.Entry<K, V> entry : entries) {
+            if (size > 0 && comparator.compare(entry.getKey(), (K) keys[size - 1]) == 0) {
+                values[size - 1] = entry.getValue();
+            } else {
+                keys[size] = entry.getKey();
+                values[size] = entry.getValue();
+                size++;
+            }
+        }
+        return PersistentTreeMap.copyOf(comparator, keys, values, size);
+    }
+
+    public Optional<Employee> get(String id) {
+        return Optional.ofNullable(employees.get(id));
+    }
+
+    public List<Employee> searchByName(String fragment) {
+        return nameIndex.search(fragment, employees);
+    }
+
+    public boolean isSynced() {
+        return loaded && upstreamSequence != UNSYNCED;
+    }
+
+    public boolean isStale(Duration maxAge) {
+        return !refreshedAt.plus(maxAge).isAfter(Instant.now());
+    }
+
+    public List<Employee> topEmployees(int count) {
+        List<Employee> top = new ArrayList<>(Math.min(count, salaryIndex.size()));
+        Iterator<Map.Entry<SalaryKey, Employee>> highestFirst = salaryIndex.iterator();
+        while (top.size() < count && highestFirst.hasNext()) {
+            top.add(highestFirst.next().getValue());
+        }
+        return Collections.unmodifiableList(top);
+    }
+
+    /**
+     * Up to {@code size} employees in id order, starting right after {@code afterId}, or from the start when it's
+     * null. The id needn't be in this snapshot, so a page picks up where the previous one ended even if the roster
+     * changed in between. Walks the tree from that position instead of skipping over an offset.
+     */
+    public List<Employee> page(String afterId, int size) {
+        Iterator<Map.Entry<String, Employee>> entries =
+                afterId == null ? employees.iterator() : employees.iteratorAfter(afterId);
+        List<Employee> page = new ArrayList<>(Math.min(size, employees.size()));
+        while (page.size() < size && entries.hasNext()) {
+            page.add(entries.next().getValue());
+        }
+        return Collections.unmodifiableList(page);
+    }
+
+    public Optional<Integer> highestSalary() {
+        return salaryIndex.first().map(entry -> entry.getKey().salary());
+    }
+
+    public Optional<SalaryRank> salaryRank(String id) {
+        return get(id).map(employee -> {
+            int salary = employee.employeeSalary();
+            int total = salaryIndex.size();
+            int higher = salaryIndex.rank(SalaryKey.above(salary));
+            int atLeast = salaryIndex.rank(SalaryKey.above(salary - 1));
+            int lower = total - atLeast;
+            double percentile = 100.0 * (lower + 0.5 * (atLeast - higher)) / total;
+
+            return new SalaryRank(employee.id(), salary, higher + 1, total, percentile);
+        });
+    }
+
+    public ValueStatistics salaryStatistics(List<Double> quantiles, int buckets) {
+        // the salary index knows the exact extremes, the sketch only to within its accuracy
+        OptionalLong min = salaryIndex.last().map(entry -> OptionalLong.of(entry.getKey().salary()))
+                .orElse(OptionalLong.empty());
+        OptionalLong max = salaryIndex.first().map(entry -> OptionalLong.of(entry.getKey().salary()))
+                .orElse(OptionalLong.empty());
+        return salarySketch.statistics(quantiles, buckets, min, max);
+    }
+
+    public ValueStatistics ageStatistics(List<Double> quantiles, int buckets) {
+        return ageSketch.statistics(quantiles, buckets);
+    }
+
+    RosterMutation mutate() {
+        return new RosterMutation(this);
+    }
+
+    RosterSnapshot withVersion(long version) {
+        return new RosterSnapshot(version, loaded, employees, nameIndex, salaryIndex, salarySketch, ageSketch,
+                refreshedAt, upstreamSequence);
+    }
+
+    RosterSnapshot cleared() {
+        RosterSnapshot empty = empty();
+        return new RosterSnapshot(version + 1, false, empty.employees(), empty.nameIndex(), empty.salaryIndex(),
+                empty.salarySketch(), empty.ageSketch(), Instant.EPOCH, UNSYNCED);
+    }
+}
@@ -0,0 +1,268 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.Employee;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Holds the current {@link RosterSnapshot}. Readers take the reference as is, writers publish a new snapshot with a
+ * compare-and-set, so neither side ever blocks.
+ */
+public class RosterStore {
+
+    private final AtomicReference<RosterSnapshot> current = new AtomicReference<>(RosterSnapshot.empty());
+
+    private final Consumer<List<Employee>> changeListener;
+
+    /*
+     * Writes published while a whole roster is being read, so the roster read can be published on top of them. Kept
+     * only while such a read is in progress.
+     */
+    private final Queue<Write> writesDuringRead = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger reads = new AtomicInteger();
+
+    public RosterStore() {
+        this(changes -> {
+        });
+    }
+
+    /**
+     * @param changeListener notified once per published write with the employees it added, removed or replaced
+     */
+    public RosterStore(Consumer<List<Employee>> changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    public RosterSnapshot current() {
+        return current.get();
+    }
+
+    public RosterSnapshot put(Employee employee) {
+        return commit(snapshot -> true, snapshot -> snapshot.mutate().put(employee),
+                List.of(RosterChange.put(employee)), OptionalLong.empty()).orElseThrow();
+    }
+
+    public RosterSnapshot putAll(Collection<Employee> employees) {
+        return commit(snapshot -> true, snapshot -> {
+            RosterMutation mutation = snapshot.mutate();
+            employees.forEach(mutation::put);
+            return mutation;
+        }, employees.stream().map(RosterChange::put).toList(), OptionalLong.empty()).orElseThrow();
+    }
+
+    public RosterSnapshot remove(String id) {
+        return commit(snapshot -> true, snapshot -> snapshot.mutate().remove(id),
+                List.of(RosterChange.remove(id)), OptionalLong.empty()).orElseThrow();
+    }
+
+    public RosterSnapshot replaceAll(Collection<Employee> employees) {
+        return commit(snapshot -> true, snapshot -> snapshot.mutate().replaceAll(employees.iterator())).orElseThrow();
+    }
+
+    /**
+     * Replaces the roster only if no write was published since {@code expectedVersion}, so a refresh fetched before
+     * a local create or delete can't undo it.
+     */
+    public Optional<RosterSnapshot> replaceAll(long expectedVersion, Collection<Employee> employees) {
+        return commit(snapshot -> snapshot.version() == expectedVersion,
+                snapshot -> snapshot.mutate().replaceAll(employees.iterator()));
+    }
+
+    /**
+     * Streaming variant of {@link #replaceAll(long, Collection)}, see {@link Read#replaceAll}.
+     */
+    public Optional<RosterSnapshot> replaceAll(long expectedVersion, Iterator<Employee> employees) {
+        return replaceAll(expectedVersion, employees, RosterSnapshot.UNSYNCED);
+    }
+
+    /**
+     * Like {@link #replaceAll(long, Iterator)}, for a roster read at {@code upstreamSequence} of the upstream change
+     * log, so later refreshes can {@link #applyChanges catch up} from there.
+     */
+    public Optional<RosterSnapshot> replaceAll(long expectedVersion, Iterator<Employee> employees,
+                                               long upstreamSequence) {
+        try (Read read = startRead()) {
+            if (read.base.version() != expectedVersion) {
+                return Optional.empty();
+            }
+            return read.replaceAll(employees, upstreamSequence);
+        }
+    }
+
+    /**
+     * Starts reading the whole roster. Writes published from now on are remembered until the read is closed, so
+     * they can be replayed on top of the roster read rather than undone by it.
+     */
+    public Read startRead() {
+        reads.incrementAndGet();
+        return new Read(current.get());
+    }
+
+    /**
+     * Applies the upstream changes made after {@code fromSequence} up to {@code toSequence}, provided the roster is
+     * still synced to {@code fromSequence}. Local writes in between don't stand in the way, the changes are replayed
+     * on top of them.
+     */
+    public Optional<RosterSnapshot> applyChanges(long fromSequence, long toSequence, List<RosterChange> changes) {
+        return commit(snapshot -> snapshot.isSynced() && snapshot.upstreamSequence() == fromSequence,
+                snapshot -> snapshot.mutate().replay(changes).syncedTo(toSequence), changes,
+                OptionalLong.of(toSequence));
+    }
+
+    /**
+     * Publishes a roster saved earlier, unless one was loaded in the meantime. It keeps the time it was saved at, so
+     * it counts as stale until revalidated, and the upstream sequence, so revalidating it can be a catch-up.
+     */
+    public Optional<RosterSnapshot> restore(SnapshotFile saved) {
+        RosterSnapshot snapshot = current.get();
+        if (snapshot.loaded()) {
+            return Optional.empty();
+        }
+        return publish(snapshot, snapshot.mutate()
+                .replaceAll(saved)
+                .syncedTo(saved.upstreamSequence())
+                .refreshedAt(saved.savedAt()));
+    }
+
+    public RosterSnapshot clear() {
+        return current.updateAndGet(RosterSnapshot::cleared);
+    }
+
+    private Optional<RosterSnapshot> commit(Predicate<RosterSnapshot> precondition,
+                                            Function<RosterSnapshot, RosterMutation> change) {
+        return commit(precondition, change, null, OptionalLong.empty());
+    }
+
+    /**
+     * @param replayed         the write as changes to replay on top of a roster read meanwhile, or {@code null} for
+     *                         one that replaces the roster, after which such a read is outdated
+     * @param upstreamSequence where in the upstream change log the write brings the roster, empty for a local one
+     */
+    private Optional<RosterSnapshot> commit(Predicate<RosterSnapshot> precondition,
+                                            Function<RosterSnapshot, RosterMutation> change,
+                                            List<RosterChange> replayed, OptionalLong upstreamSequence) {
+        while (true) {
+            RosterSnapshot snapshot = current.get();
+            if (!precondition.test(snapshot)) {
+                return Optional.empty();
+            }
+
+            RosterMutation mutation = change.apply(snapshot);
+            Optional<RosterSnapshot> published = publish(snapshot, mutation);
+            if (published.isPresent()) {
+                if (replayed != null && published.get() != snapshot && reads.get() > 0) {
+                    writesDuringRead.add(new Write(snapshot, published.get(), replayed, upstreamSequence,
+                            mutation.changes()));
+                }
+                return published;
+            }
+        }
+    }
+
+    private Optional<RosterSnapshot> publish(RosterSnapshot snapshot, RosterMutation mutation) {
+        return publish(snapshot, mutation.apply(), mutation.changes());
+    }
+
+    private Optional<RosterSnapshot> publish(RosterSnapshot snapshot, RosterSnapshot updated, List<Employee> changes) {
+        if (!current.compareAndSet(snapshot, updated)) {
+            return Optional.empty();
+        }
+        if (!changes.isEmpty()) {
+            changeListener.accept(changes);
+        }
+        return Optional.of(updated);
+    }
+
+    /**
+     * The writes that led from {@code from} to {@code to} in the order they were published, or empty if the roster
+     * was replaced wholesale in between.
+     */
+    private Optional<List<Write>> writesBetween(RosterSnapshot from, RosterSnapshot to) {
+        Map<RosterSnapshot, Write> byBase = new IdentityHashMap<>();
+        writesDuringRead.forEach(write -> byBase.put(write.from(), write));
+
+        List<Write> writes = new ArrayList<>();
+        for (RosterSnapshot snapshot = from; snapshot != to; snapshot = writes.get(writes.size() - 1).to()) {
+            Write write = byBase.get(snapshot);
+            if (write == null) {
+                return Optional.empty();
+            }
+            writes.add(write);
+        }
+        return Optional.of(writes);
+    }
+
+    /**
+     * A read of the whole roster, from {@link #startRead()} until closed.
+     */
+    public final class Read implements AutoCloseable {
+
+        private final RosterSnapshot base;
+
+        private Read(RosterSnapshot base) {
+            this.base = base;
+        }
+
+        /**
+         * Replaces the roster with {@code employees}, read at {@code upstreamSequence} of the upstream change log, if
+         * known. They are consumed once as they arrive, so rather than reading them again when other writes were
+         * published meanwhile, those are replayed on top: local ones always, upstream ones only if they go beyond
+         * {@code upstreamSequence}. Empty only when the roster was replaced wholesale in the meantime.
+         */
+        public Optional<RosterSnapshot> replaceAll(Iterator<Employee> employees, long upstreamSequence) {
+            RosterMutation mutation = base.mutate().replaceAll(employees).syncedTo(upstreamSequence);
+            RosterSnapshot read = mutation.apply();
+            Optional<RosterSnapshot> published = publish(base, read, mutation.changes());
+            while (published.isEmpty()) {
+                RosterSnapshot latest = current.get();
+                Optional<List<Write>> writes = writesBetween(base, latest);
+                if (writes.isEmpty()) {
+                    return Optional.empty();
+                }
+
+                RosterMutation rebased = read.mutate();
+                // readers saw every write in between, so any employee they touched may look different again
+                List<Employee> changes = new ArrayList<>(mutation.changes());
+                for (Write write : writes.get()) {
+                    changes.addAll(write.changed());
+                    if (upstreamSequence == RosterSnapshot.UNSYNCED || write.upstreamSequence().isEmpty()) {
+                        rebased.replay(write.replayed());
+                    } else if (write.upstreamSequence().getAsLong() > upstreamSequence) {
+                        rebased.replay(write.replayed()).syncedTo(write.upstreamSequence().getAsLong());
+                    }
+                }
+                changes.addAll(rebased.changes());
+                published = publish(latest, rebased.apply().withVersion(latest.version() + 1), changes);
+            }
+            return published;
+        }
+
+        @Override
+        public void close() {
+            if (reads.decrementAndGet() == 0) {
+                writesDuringRead.clear();
+            }
+        }
+    }
+
+    /**
+     * A write published from {@code from} to {@code to} while a roster was being read.
+     */
+    private record Write(RosterSnapshot from, RosterSnapshot to, List<RosterChange> replayed,
+                         OptionalLong upstreamSequence, List<Employee> changed) {
+    }
+}
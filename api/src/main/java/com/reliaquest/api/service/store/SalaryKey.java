@@ -0,0 +1,26 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.Employee;
+
+import java.util.Comparator;
+
+/**
+ * Orders the salary index from the highest salary down; ties are kept apart by id so equal salaries never collapse.
+ */
+public record SalaryKey(int salary, String id) {
+
+    static final Comparator<SalaryKey> HIGHEST_FIRST = Comparator.comparingInt(SalaryKey::salary)
+            .reversed()
+            .thenComparing(SalaryKey::id);
+
+    static SalaryKey of(Employee employee) {
+        return new SalaryKey(employee.employeeSalary(), employee.id().toString());
+    }
+
+    /**
+     * Sorts before every employee earning {@code salary}.
+     */
+    static SalaryKey above(int salary) {
+        return new SalaryKey(salary, "");
+    }
+}
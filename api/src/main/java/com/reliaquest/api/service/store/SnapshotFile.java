@@ -0,0 +1,152 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.Employee;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Compact binary copy of a roster, so a restarted API can serve from disk instead of waiting for the upstream. Only
+ * the employees are kept, in id order; the indexes are cheaper to rebuild bottom-up than to store.
+ * <p>
+ * Layout: magic, format, upstream sequence, save time in epoch millis and employee count, then per employee its id,
+ * salary and age as fixed-width numbers and name, title and email as length-prefixed UTF-8, with -1 for null.
+ */
+public final class SnapshotFile implements Iterator<Employee> {
+
+    private static final int MAGIC = 0x52535450; // "RSTP"
+    private static final int FORMAT = 1;
+    private static final int NULL = -1;
+
+    private final ByteBuffer buffer;
+    private final long upstreamSequence;
+    private final Instant savedAt;
+    private int remaining;
+
+    private SnapshotFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.remaining() < 28 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a roster snapshot");
+        }
+        int format = buffer.getInt();
+        if (format != FORMAT) {
+            throw new IOException("Unsupported roster snapshot format " + format);
+        }
+        this.upstreamSequence = buffer.getLong();
+        this.savedAt = Instant.ofEpochMilli(buffer.getLong());
+        this.remaining = buffer.getInt();
+    }
+
+    /**
+     * Writes {@code snapshot} next to {@code path} first and then moves it into place, so a crash mid-write leaves
+     * the previous file intact.
+     */
+    public static void write(RosterSnapshot snapshot, Path path) throws IOException {
+        Path partial = path.resolveSibling(path.getFileName() + ".partial");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial),
+                1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(snapshot.upstreamSequence());
+            out.writeLong(snapshot.refreshedAt().toEpochMilli());
+            out.writeInt(snapshot.employees().size());
+            for (Map.Entry<String, Employee> entry : snapshot.employees()) {
+                Employee employee = entry.getValue();
+                out.writeLong(employee.id().getMostSignificantBits());
+                out.writeLong(employee.id().getLeastSignificantBits());
+                out.writeInt(employee.employeeSalary());
+                out.writeInt(employee.employeeAge());
+                writeString(out, employee.employeeName());
+                writeString(out, employee.employeeTitle());
+                writeString(out, employee.employeeEmail());
+            }
+        }
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps {@code path} into memory and iterates its employees straight from the mapping, so reading costs page
+     * faults rather than copies through a heap buffer.
+     */
+    public static SnapshotFile read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Roster snapshot too large to map: " + channel.size() + " bytes");
+            }
+            // the mapping stays valid after the channel is closed
+            return new SnapshotFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated roster snapshot", e);
+        }
+    }
+
+    public long upstreamSequence() {
+        return upstreamSequence;
+    }
+
+    public Instant savedAt() {
+        return savedAt;
+    }
+
+    public int size() {
+        return remaining;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining > 0;
+    }
+
+    @Override
+    public Employee next() {
+        if (remaining == 0) {
+            throw new NoSuchElementException();
+        }
+        try {
+            UUID id = new UUID(buffer.getLong(), buffer.getLong());
+            int salary = buffer.getInt();
+            int age = buffer.getInt();
+            String name = readString();
+            String title = readString();
+            String email = readString();
+            remaining--;
+            return new Employee(id, name, salary, age, title, email);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("Truncated roster snapshot", e);
+        }
+    }
+
+    private String readString() {
+        int length = buffer.getInt();
+        if (length == NULL) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,273 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.ValueStatistics;
+
+import java.util.*;
+
+/**
+ * Immutable, mergeable quantile sketch over non-negative integers. Values are counted in logarithmic buckets so every
+ * quantile is within {@link #RELATIVE_ACCURACY} of the true value, and the sketch stays a few hundred buckets wide no
+ * matter how many values it holds. Unlike most sketches it also supports removing a value that was added before.
+ * Negative values are left out and only counted, so one bad record can't fail a whole roster.
+ */
+public final class ValueSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.005;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final ValueSketch EMPTY = new ValueSketch(0, new long[0], 0, 0, 0, 0);
+
+    private final int offset;
+    private final long[] counts;
+    private final long zeroCount;
+    private final long count;
+    private final long sum;
+    private final long rejected;
+
+    private ValueSketch(int offset, long[] counts, long zeroCount, long count, long sum, long rejected) {
+        this.offset = offset;
+        this.counts = counts;
+        this.zeroCount = zeroCount;
+        this.count = count;
+        this.sum = sum;
+        this.rejected = rejected;
+    }
+
+    public static ValueSketch empty() {
+        return EMPTY;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    /**
+     * Number of negative values that were added and not removed again, none of which are in the statistics.
+     */
+    public long rejected() {
+        return rejected;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public OptionalDouble mean() {
+        return isEmpty() ? OptionalDouble.empty() : OptionalDouble.of((double) sum / count);
+    }
+
+    public OptionalLong min() {
+        return quantile(0);
+    }
+
+    public OptionalLong max() {
+        return quantile(1);
+    }
+
+    /**
+     * Value at {@code quantile} (between 0 and 1), using the lower nearest rank. Values below 100 come back exact.
+     */
+    public OptionalLong quantile(double quantile) {
+        if (isEmpty()) {
+            return OptionalLong.empty();
+        }
+
+        long rank = (long) (quantile * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return OptionalLong.of(0);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                return OptionalLong.of(valueOf(offset + i));
+            }
+        }
+        return OptionalLong.of(valueOf(offset + counts.length - 1));
+    }
+
+    public ValueStatistics statistics(List<Double> quantiles, int buckets) {
+        return statistics(quantiles, buckets, min(), max());
+    }
+
+    /**
+     * Like {@link #statistics(List, int)}, for callers that know the exact extremes.
+     */
+    ValueStatistics statistics(List<Double> quantiles, int buckets, OptionalLong min, OptionalLong max) {
+        if (isEmpty()) {
+            List<ValueStatistics.Quantile> values = quantiles.stream()
+                    .map(quantile -> new ValueStatistics.Quantile(quantile, null))
+                    .toList();
+            return new ValueStatistics(0L, 0L, null, null, null, values, List.of());
+        }
+
+        long lower = min.orElseThrow();
+        long upper = max.orElseThrow();
+        List<ValueStatistics.Quantile> values = quantiles.stream()
+                .map(quantile -> new ValueStatistics.Quantile(quantile, quantile(quantile, lower, upper)))
+                .toList();
+
+        return new ValueStatistics(count, sum, (double) sum / count, lower, upper, values,
+                histogram(lower, upper, buckets));
+    }
+
+    private long quantile(double quantile, long lower, long upper) {
+        if (quantile <= 0) {
+            return lower;
+        }
+        if (quantile >= 1) {
+            return upper;
+        }
+        // an estimate can fall just outside the exact extremes, which would look odd next to them
+        return Math.max(lower, Math.min(upper, quantile(quantile).orElseThrow()));
+    }
+
+    /**
+     * Splits {@code [lower, upper]} into at most {@code buckets} equal-width ranges and counts the values falling
+     * into each.
+     */
+    private List<ValueStatistics.Bucket> histogram(long lower, long upper, int buckets) {
+        int size = (int) Math.min(buckets, upper - lower + 1);
+        double width = (double) (upper - lower + 1) / size;
+
+        long[] histogram = new long[size];
+        histogram[bucketOf(0, lower, width, size)] += zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            histogram[bucketOf(valueOf(offset + i), lower, width, size)] += counts[i];
+        }
+
+        List<ValueStatistics.Bucket> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new ValueStatistics.Bucket(lower + (long) Math.ceil(i * width),
+                    lower + (long) Math.ceil((i + 1) * width) - 1, histogram[i]));
+        }
+        return result;
+    }
+
+    public ValueSketch merge(ValueSketch other) {
+        return toBuilder().addAll(other).build();
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    private static int bucketOf(long value, long lower, double width, int buckets) {
+        int bucket = (int) ((value - lower) / width);
+        return Math.max(0, Math.min(buckets - 1, bucket));
+    }
+
+    private static int indexOf(int value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    private static long valueOf(int index) {
+        // midpoint of (gamma^(index-1), gamma^index], relative error at most RELATIVE_ACCURACY either side
+        return Math.round(2 * Math.pow(GAMMA, index) / (GAMMA + 1));
+    }
+
+    /**
+     * Mutable copy used to apply a batch of changes before publishing a new sketch.
+     */
+    public static final class Builder {
+
+        private int offset;
+        private long[] counts;
+        private long zeroCount;
+        private long count;
+        private long sum;
+        private long rejected;
+
+        private Builder(ValueSketch sketch) {
+            this.offset = sketch.offset;
+            this.counts = sketch.counts.clone();
+            this.zeroCount = sketch.zeroCount;
+            this.count = sketch.count;
+            this.sum = sketch.sum;
+            this.rejected = sketch.rejected;
+        }
+
+        /**
+         * Counts {@code value}; {@code null} values are ignored and negative ones only counted as rejected.
+         */
+        public Builder add(Integer value) {
+            return update(value, 1);
+        }
+
+        /**
+         * Uncounts a value previously passed to {@link #add}; {@code null} values are ignored.
+         */
+        public Builder remove(Integer value) {
+            return update(value, -1);
+        }
+
+        public Builder addAll(ValueSketch other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] > 0) {
+                    increment(other.offset + i, other.counts[i]);
+                }
+            }
+            zeroCount += other.zeroCount;
+            count += other.count;
+            sum += other.sum;
+            rejected += other.rejected;
+            return this;
+        }
+
+        public ValueSketch build() {
+            if (count == 0 && rejected == 0) {
+                return EMPTY;
+            }
+
+            int from = 0;
+            int to = counts.length;
+            while (from < to && counts[from] == 0) {
+                from++;
+            }
+            while (to > from && counts[to - 1] == 0) {
+                to--;
+            }
+            return new ValueSketch(offset + from, Arrays.copyOfRange(counts, from, to), zeroCount, count, sum,
+                    rejected);
+        }
+
+        private Builder update(Integer value, int delta) {
+            if (value == null) {
+                return this;
+            }
+            if (value < 0) {
+                rejected += delta;
+                return this;
+            }
+
+            if (value == 0) {
+                zeroCount += delta;
+            } else {
+                increment(indexOf(value), delta);
+            }
+            count += delta;
+            sum += (long) delta * value;
+            return this;
+        }
+
+        private void increment(int index, long delta) {
+            if (counts.length == 0) {
+                offset = index;
+                counts = new long[1];
+            } else if (index < offset) {
+                long[] grown = new long[counts.length + offset - index];
+                System.arraycopy(counts, 0, grown, offset - index, counts.length);
+                counts = grown;
+                offset = index;
+            } else if (index >= offset + counts.length) {
+                counts = Arrays.copyOf(counts, index - offset + 1);
+            }
+            counts[index - offset] += delta;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.reliaquest.api.client;
+
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveRateLimiterTest {
+
+    private static final RateLimitProperties PROPERTIES =
+            new RateLimitProperties(Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(8));
+
+    private final MutableClock clock = new MutableClock();
+    private final AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(PROPERTIES, new SimpleMeterRegistry(), clock);
+
+    @Test
+    void refused_afterAcceptedRequests_learnsBudgetAndBlocks() {
+        acceptRequests(3);
+
+        assertEquals(Duration.ZERO, limiter.reserve());
+        limiter.refused(clock.instant(), null);
+
+        assertEquals(0, limiter.remainingBudget());
+        assertEquals(Duration.ofSeconds(1), limiter.reserve());
+
+        clock.advance(Duration.ofSeconds(1));
+        acceptRequests(1);
+        assertEquals(2, limiter.remainingBudget());
+    }
+
+    @Test
+    void reserve_whileProbing_doublesGapUntilUpstreamAccepts() {
+        acceptRequests(2);
+        limiter.reserve();
+        limiter.refused(clock.instant(), null);
+
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals(Duration.ZERO, limiter.reserve());
+        assertEquals(Duration.ofSeconds(1), limiter.reserve(), "only one probe at a time");
+        limiter.refused(clock.instant(), null);
+        assertEquals(Duration.ofSeconds(2), limiter.reserve());
+
+        clock.advance(Duration.ofSeconds(2));
+        assertEquals(Duration.ZERO, limiter.reserve());
+        limiter.accepted(clock.instant());
+
+        assertEquals(1, limiter.remainingBudget());
+    }
+
+    @Test
+    void reserve_givenLearnedBudgetAndWindow_holdsBackUntilWindowEnds() {
+        acceptRequests(2);
+        limiter.reserve();
+        limiter.refused(clock.instant(), null);
+        clock.advance(Duration.ofSeconds(3));
+        limiter.reserve();
+        limiter.accepted(clock.instant());
+
+        // the probe used one of the two requests, the window is the 3s the upstream took to accept again
+        acceptRequests(1);
+        Duration wait = limiter.reserve();
+
+        assertEquals(Duration.ofSeconds(3), wait);
+        assertEquals(0, limiter.remainingBudget());
+
+        clock.advance(wait);
+        assertEquals(Duration.ZERO, limiter.reserve());
+    }
+
+    @Test
+    void acquire_givenWaitLongerThanMaxWait_failsFast() {
+        acceptRequests(1);
+        limiter.reserve();
+        limiter.refused(clock.instant(), Duration.ofSeconds(30));
+
+        RateLimitedException e = assertThrows(RateLimitedException.class, () -> limiter.acquire(request()));
+
+        assertEquals(429, e.status());
+        assertEquals(30, e.getRetryAfterSeconds());
+    }
+
+    @Test
+    void refused_givenRequestSentBeforeBlock_doesNotExtendIt() {
+        acceptRequests(1);
+        Instant sentEarlier = clock.instant();
+        limiter.reserve();
+        limiter.reserve();
+        limiter.refused(clock.instant(), null);
+
+        limiter.refused(sentEarlier, null);
+
+        assertEquals(Duration.ofSeconds(1), limiter.reserve());
+    }
+
+    private void acceptRequests(int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals(Duration.ZERO, limiter.reserve());
+            limiter.accepted(clock.instant());
+        }
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "http://localhost/api/v1/employee", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.reliaquest.api.client;
+
+import feign.MethodMetadata;
+import feign.Request;
+import feign.RequestTemplate;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationTimeoutsTest {
+
+    private static final Request.Options DEFAULTS =
+            new Request.Options(Duration.ofSeconds(2), Duration.ofSeconds(5), true);
+
+    private final OperationTimeouts operationTimeouts = new OperationTimeouts(new ClientProperties(
+            Map.of("getAll", new ClientProperties.Timeouts(null, Duration.ofSeconds(30)))));
+
+    @Test
+    void enrich_givenConfiguredOperation_overridesItsTimeouts() throws IOException {
+        Request.Options used = execute(request("getAll"));
+
+        assertEquals(30_000, used.readTimeoutMillis());
+        assertEquals(2_000, used.connectTimeoutMillis());
+        assertTrue(used.isFollowRedirects());
+    }
+
+    @Test
+    void enrich_givenOtherOperation_keepsClientTimeouts() throws IOException {
+        assertSame(DEFAULTS, execute(request("getById")));
+    }
+
+    private Request.Options execute(Request request) throws IOException {
+        AtomicReference<Request.Options> used = new AtomicReference<>();
+        operationTimeouts.enrich((sent, options) -> {
+            used.set(options);
+            return null;
+        }).execute(request, DEFAULTS);
+        return used.get();
+    }
+
+    private static Request request(String operation) {
+        MethodMetadata metadata = new SpringMvcContract().parseAndValidateMetadata(EmployeeClient.class)
+                .stream()
+                .filter(method -> method.method().getName().equals(operation))
+                .findFirst()
+                .orElseThrow();
+        RequestTemplate template = RequestTemplate.from(metadata.template());
+        template.methodMetadata(metadata);
+        template.target("http://localhost/api/v1/employee");
+        return template.resolve(Map.of("id", "1")).request();
+    }
+}
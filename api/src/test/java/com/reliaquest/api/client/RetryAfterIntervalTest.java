@@ -0,0 +1,84 @@
+package com.reliaquest.api.client;
+
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.core.functions.Either;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
+class RetryAfterIntervalTest {
+
+    private static final RateLimitProperties PROPERTIES =
+            new RateLimitProperties(Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(8));
+
+    private final RetryAfterInterval interval = new RetryAfterInterval(PROPERTIES);
+    private final TooManyRequestsDecoder decoder = new TooManyRequestsDecoder();
+
+    @Test
+    void decode_given429WithRetryAfter_keepsItTooManyRequests() {
+        Exception e = decoder.decode("EmployeeClient#create", response(429, Map.of(RETRY_AFTER, List.of("3"))));
+
+        FeignException.TooManyRequests tooManyRequests = assertInstanceOf(FeignException.TooManyRequests.class, e);
+        assertEquals(List.of("3"), List.copyOf(tooManyRequests.responseHeaders().get(RETRY_AFTER)));
+    }
+
+    @Test
+    void decode_givenOtherStatus_decodesAsDefault() {
+        Exception e = decoder.decode("EmployeeClient#create", response(500, Map.of()));
+
+        assertInstanceOf(FeignException.InternalServerError.class, e);
+    }
+
+    @Test
+    void apply_givenRetryAfter_waitsAsLongAsAsked() {
+        Exception e = decoder.decode("EmployeeClient#create", response(429, Map.of(RETRY_AFTER, List.of("3"))));
+
+        assertEquals(3_000L, interval.apply(1, Either.left(e)));
+        assertEquals(3_000L, interval.apply(2, Either.left(e)), "the upstream knows best, however often it refused");
+    }
+
+    @Test
+    void apply_givenRetryAfterPastMaxBackoff_capsIt() {
+        Exception e = decoder.decode("EmployeeClient#create", response(429, Map.of(RETRY_AFTER, List.of("60"))));
+
+        assertEquals(8_000L, interval.apply(1, Either.left(e)));
+    }
+
+    @Test
+    void apply_givenNoRetryAfter_doublesFromInitialBackoff() {
+        Exception e = decoder.decode("EmployeeClient#create", response(429, Map.of()));
+
+        assertEquals(1_000L, interval.apply(1, Either.left(e)));
+        assertEquals(2_000L, interval.apply(2, Either.left(e)));
+        assertEquals(8_000L, interval.apply(5, Either.left(e)));
+    }
+
+    @Test
+    void apply_givenRateLimitedException_waitsForItsWindow() {
+        RateLimitedException e = new RateLimitedException(request(), Duration.ofMillis(1_500));
+
+        assertEquals(2_000L, interval.apply(1, Either.left(e)));
+    }
+
+    private static Response response(int status, Map<String, Collection<String>> headers) {
+        return Response.builder()
+                .status(status)
+                .headers(headers)
+                .request(request())
+                .build();
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.POST, "http://localhost/api/v1/employee", Map.of(),
+                new byte[0], StandardCharsets.UTF_8, null);
+    }
+}
@@ -0,0 +1,98 @@
+package com.reliaquest.api.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.api.model.Employee;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RosterReaderTest {
+
+    private static final Employee EMPLOYEE = new Employee(
+            UUID.fromString("2a273517-b3a2-4b70-b46f-63b727d6a866"),
+            "Mrs. Eleanora Predovic",
+            278736,
+            41,
+            "Advertising Representative",
+            "bitchin_blair@company.com");
+
+    @Mock
+    private EmployeeClient employeeClient;
+
+    private RosterReader rosterReader;
+
+    @Test
+    void open_givenRoster_streamsEmployees() throws IOException {
+        givenUpstream(200, """
+                {"status": "Successfully processed request.",
+                 "data": [{"id": "2a273517-b3a2-4b70-b46f-63b727d6a866",
+                           "employee_name": "Mrs. Eleanora Predovic",
+                           "employee_salary": 278736,
+                           "employee_age": 41,
+                           "employee_title": "Advertising Representative",
+                           "employee_email": "bitchin_blair@company.com"}]}
+                """);
+
+        assertEquals(List.of(EMPLOYEE), readAll());
+    }
+
+    @Test
+    void open_givenEmptyRoster_streamsNothing() throws IOException {
+        givenUpstream(200, """
+                {"data": [], "status": "Successfully processed request."}
+                """);
+
+        assertEquals(List.of(), readAll());
+    }
+
+    @Test
+    void open_givenErrorStatus_throwsFeignException() {
+        givenUpstream(429, "");
+
+        assertThrows(FeignException.TooManyRequests.class, () -> rosterReader.open());
+    }
+
+    @Test
+    void open_givenBodyWithoutData_throws() {
+        givenUpstream(200, """
+                {"status": "Failed to process request."}
+                """);
+
+        assertThrows(UncheckedIOException.class, () -> rosterReader.open());
+    }
+
+    private List<Employee> readAll() throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        try (EmployeeStream stream = rosterReader.open()) {
+            stream.forEachRemaining(employees::add);
+        }
+        return employees;
+    }
+
+    private void givenUpstream(int status, String body) {
+        rosterReader = new RosterReader(employeeClient, new ObjectMapper());
+        when(employeeClient.getAll()).thenReturn(Response.builder()
+                .status(status)
+                .request(Request.create(Request.HttpMethod.GET, "http://localhost/api/v1/employee", Map.of(), null,
+                        StandardCharsets.UTF_8, null))
+                .headers(Map.of())
+                .body(body, StandardCharsets.UTF_8)
+                .build());
+    }
+}
@@ -0,0 +1,51 @@
+package com.reliaquest.api.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ServerSentEventsTest {
+
+    @Test
+    void read_givenEvents_handsOverEachAtBlankLine() {
+        List<ServerSentEvents.Event> events = read(
+                "id:42",
+                "event:created",
+                "data:{\"id\": \"2a273517-b3a2-4b70-b46f-63b727d6a866\"}",
+                "",
+                "event: heartbeat",
+                "data: 42",
+                "");
+
+        assertEquals(List.of(
+                new ServerSentEvents.Event("42", "created", "{\"id\": \"2a273517-b3a2-4b70-b46f-63b727d6a866\"}"),
+                new ServerSentEvents.Event(null, "heartbeat", "42")), events);
+    }
+
+    @Test
+    void read_givenMultilineDataAndComments_joinsDataLines() {
+        List<ServerSentEvents.Event> events = read(
+                ": keep-alive",
+                "data:first",
+                "retry:1000",
+                "data:second",
+                "",
+                "");
+
+        assertEquals(List.of(new ServerSentEvents.Event(null, "message", "first\nsecond")), events);
+    }
+
+    @Test
+    void read_givenUnterminatedEvent_dropsIt() {
+        assertEquals(List.of(), read("id:43", "event:deleted", "data:{}"));
+    }
+
+    private static List<ServerSentEvents.Event> read(String... lines) {
+        List<ServerSentEvents.Event> events = new ArrayList<>();
+        ServerSentEvents.read(List.of(lines).iterator(), events::add);
+        return events;
+    }
+}
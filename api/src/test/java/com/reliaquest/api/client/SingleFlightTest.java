@@ -0,0 +1,78 @@
+package com.reliaquest.api.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+
+    @Test
+    void execute_givenConcurrentIdenticalCalls_callsUpstreamOnce() throws Exception {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+        try {
+            List<Future<String>> results = IntStream.range(0, CALLERS)
+                    .mapToObj(i -> executor.submit(() -> singleFlight.execute("getAll", () -> {
+                        upstreamCalls.incrementAndGet();
+                        await(release);
+                        return "roster";
+                    })))
+                    .toList();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                while (singleFlight.coalescedCalls("getAll") < CALLERS - 1) {
+                    Thread.sleep(5);
+                }
+            });
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("roster", result.get(1, TimeUnit.SECONDS));
+            }
+            assertEquals(1, upstreamCalls.get());
+            assertEquals(1, singleFlight.executedCalls("getAll"));
+            assertEquals(CALLERS - 1, singleFlight.coalescedCalls("getAll"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_givenDifferentArguments_callsUpstreamForEach() {
+        singleFlight.execute("getById", "1", () -> "first");
+        singleFlight.execute("getById", "2", () -> "second");
+
+        assertEquals(2, singleFlight.executedCalls("getById"));
+        assertEquals(0, singleFlight.coalescedCalls("getById"));
+    }
+
+    @Test
+    void execute_givenFailingCall_rethrowsAndForgetsKey() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("getAll", () -> {
+            throw new IllegalStateException("upstream down");
+        }));
+
+        assertEquals("recovered", singleFlight.execute("getAll", () -> "recovered"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
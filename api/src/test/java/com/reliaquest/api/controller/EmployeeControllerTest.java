@@ -3,8 +3,13 @@ package com.reliaquest.api.controller;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reliaquest.api.controller.api.CreateEmployeeRequest;
+import com.reliaquest.api.model.CreateJob;
 import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.EmployeePage;
+import com.reliaquest.api.model.SalaryRank;
+import com.reliaquest.api.model.ValueStatistics;
 import com.reliaquest.api.service.CachedCalculationService;
+import com.reliaquest.api.service.CreateJobService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -12,9 +17,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,11 +30,12 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.LOCATION;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(EmployeeController.class)
+@WebMvcTest(controllers = EmployeeController.class, properties = "employee.response-cache.enabled=false")
 class EmployeeControllerTest {
 
     private static final String EMPLOYEE_ID = "f65040c9-7690-400f-9b19-3cab9c1497df";
@@ -46,6 +54,9 @@ class EmployeeControllerTest {
     @MockBean
     private CachedCalculationService employeeService;
 
+    @MockBean
+    private CreateJobService createJobService;
+
     @Autowired
     private MockMvc mvc;
 
@@ -116,6 +127,58 @@ class EmployeeControllerTest {
         assertEquals(highest, objectMapper.readValue(response, new TypeReference<List<String>>() {}));
     }
 
+    @Test
+    void getTopHighestEarningEmployeeNames_givenCount_returnsThatManyNames() throws Exception {
+        when(employeeService.getTopEmployees(2)).thenReturn(asList(EMPLOYEE_NAME, "Áki Ármannsson"));
+
+        String response = getResponse(get("/employee/top-highest-earning").param("count", "2"));
+
+        assertEquals(asList(EMPLOYEE_NAME, "Áki Ármannsson"),
+                objectMapper.readValue(response, new TypeReference<List<String>>() {}));
+    }
+
+    @Test
+    void getSalaryRank_givenEmployeeId_returnsRank() throws Exception {
+        SalaryRank rank = new SalaryRank(UUID.fromString(EMPLOYEE_ID), 1000, 2, 2, 25.0);
+        when(employeeService.getSalaryRank(EMPLOYEE_ID)).thenReturn(Optional.of(rank));
+
+        String response = getResponse(get("/employee/salary-rank").param("id", EMPLOYEE_ID));
+
+        assertEquals(rank, objectMapper.readValue(response, SalaryRank.class));
+    }
+
+    @Test
+    void getSalaryRank_givenUnknownEmployeeId_returns404() throws Exception {
+        when(employeeService.getSalaryRank(EMPLOYEE_ID)).thenReturn(Optional.empty());
+
+        mvc.perform(get("/employee/salary-rank").param("id", EMPLOYEE_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getSalaryStatistics_givenNoParameters_usesDefaults() throws Exception {
+        ValueStatistics statistics = new ValueStatistics(2L, 3000L, 1500.0, 1000L, 2000L,
+                singletonList(new ValueStatistics.Quantile(0.5, 1000L)),
+                singletonList(new ValueStatistics.Bucket(1000L, 2000L, 2L)));
+        when(employeeService.getSalaryStatistics(asList(0.5, 0.9, 0.99), 10)).thenReturn(statistics);
+
+        String response = getResponse(get("/employee/statistics/salary"));
+
+        assertEquals(statistics, objectMapper.readValue(response, ValueStatistics.class));
+    }
+
+    @Test
+    void getAgeStatistics_givenQuantilesAndBuckets_passesThemOn() throws Exception {
+        ValueStatistics statistics = new ValueStatistics(1L, 25L, 25.0, 25L, 25L,
+                singletonList(new ValueStatistics.Quantile(0.25, 25L)),
+                singletonList(new ValueStatistics.Bucket(25L, 25L, 1L)));
+        when(employeeService.getAgeStatistics(singletonList(0.25), 5)).thenReturn(statistics);
+
+        String response = getResponse(get("/employee/statistics/age").param("quantiles", "0.25").param("buckets", "5"));
+
+        assertEquals(statistics, objectMapper.readValue(response, ValueStatistics.class));
+    }
+
     @Test
     void createEmployee_givenCreateRequest_returnsCreatedEmployee() throws Exception {
         CreateEmployeeRequest createEmployeeRequest = CreateEmployeeRequest.builder()
@@ -134,6 +197,105 @@ class EmployeeControllerTest {
         assertEquals(EMPLOYEE, objectMapper.readValue(response, Employee.class));
     }
 
+    @Test
+    void createEmployeeAsync_givenCreateRequest_returnsAcceptedJob() throws Exception {
+        CreateEmployeeRequest createEmployeeRequest = CreateEmployeeRequest.builder()
+                .name(EMPLOYEE_NAME)
+                .age(25)
+                .salary(1000)
+                .title("Documentation Engineer")
+                .build();
+        CreateJob job = CreateJob.pending(createEmployeeRequest);
+        when(createJobService.submit(createEmployeeRequest)).thenReturn(job);
+
+        String json = objectMapper.writeValueAsString(createEmployeeRequest);
+
+        mvc.perform(post("/employee/create-async").contentType(APPLICATION_JSON).content(json))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(LOCATION, "/employee/create-status?id=" + job.id()))
+                .andExpect(jsonPath("$.id").value(job.id().toString()))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    void getPendingEmployees_givenQueuedCreate_returnsIt() throws Exception {
+        CreateJob job = CreateJob.pending(CreateEmployeeRequest.builder()
+                .name(EMPLOYEE_NAME)
+                .age(25)
+                .salary(1000)
+                .title("Documentation Engineer")
+                .build());
+        when(createJobService.getPending()).thenReturn(singletonList(job));
+
+        mvc.perform(get("/employee/pending"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(job.id().toString()))
+                .andExpect(jsonPath("$[0].status").value("PENDING"))
+                .andExpect(jsonPath("$[0].request.name").value(EMPLOYEE_NAME));
+    }
+
+    @Test
+    void getCreateStatus_givenUnknownJob_returns404() throws Exception {
+        when(createJobService.get(EMPLOYEE_ID)).thenReturn(Optional.empty());
+
+        mvc.perform(get("/employee/create-status").param("id", EMPLOYEE_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void exportEmployees_givenNoParameters_streamsAllFieldsAsNdjson() throws Exception {
+        when(employeeService.getRoster()).thenReturn(asList(EMPLOYEE, EMPLOYEE_2));
+
+        String response = getStreamedResponse(get("/employee/export"));
+
+        assertEquals(objectMapper.writeValueAsString(EMPLOYEE) + "\n" + objectMapper.writeValueAsString(EMPLOYEE_2) + "\n",
+                response);
+    }
+
+    @Test
+    void exportEmployees_givenCsvAndFields_streamsSelectedColumns() throws Exception {
+        Employee quoted = new Employee(UUID.fromString(EMPLOYEE_ID), "Bob, \"Billy\"", 1000, 25, null, null);
+        when(employeeService.getRoster()).thenReturn(asList(quoted, EMPLOYEE_2));
+
+        String response = getStreamedResponse(get("/employee/export")
+                .param("format", "csv")
+                .param("fields", "employeeName,employeeSalary"));
+
+        assertEquals("employeeName,employeeSalary\r\n\"Bob, \"\"Billy\"\"\",1000\r\nÁki Ármannsson,2000\r\n", response);
+    }
+
+    @Test
+    void exportEmployees_givenUnknownField_returns400() throws Exception {
+        mvc.perform(get("/employee/export").param("fields", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getEmployeePage_givenCursorAndFields_returnsProjectedPage() throws Exception {
+        when(employeeService.getPage("ZjY1MDQw", 2)).thenReturn(new EmployeePage<>(asList(EMPLOYEE, EMPLOYEE_2), "ZTMxNGM3"));
+
+        String response = getResponse(get("/employee/page")
+                .param("cursor", "ZjY1MDQw")
+                .param("size", "2")
+                .param("fields", "id,employeeName"));
+
+        assertEquals(new EmployeePage<>(asList(
+                        Map.of("id", EMPLOYEE_ID, "employeeName", EMPLOYEE_NAME),
+                        Map.of("id", EMPLOYEE_ID_2, "employeeName", "Áki Ármannsson")), "ZTMxNGM3"),
+                objectMapper.readValue(response, new TypeReference<EmployeePage<Map<String, Object>>>() {}));
+    }
+
+    @Test
+    void getEmployeePage_givenNoSize_usesDefaultPageSize() throws Exception {
+        when(employeeService.getPage(null, 100)).thenReturn(new EmployeePage<>(singletonList(EMPLOYEE), null));
+
+        String response = getResponse(get("/employee/page"));
+
+        assertEquals(new EmployeePage<>(singletonList(objectMapper.convertValue(EMPLOYEE,
+                        new TypeReference<Map<String, Object>>() {})), null),
+                objectMapper.readValue(response, new TypeReference<EmployeePage<Map<String, Object>>>() {}));
+    }
+
     @Test
     void deleteEmployeeById_givenId_returnsNameOfTheEmployee() throws Exception {
         when(employeeService.delete(EMPLOYEE_ID_2)).thenReturn("Áki Ármannsson");
@@ -151,6 +313,17 @@ class EmployeeControllerTest {
                 .getContentAsString();
     }
 
+    private String getStreamedResponse(MockHttpServletRequestBuilder exportRequest) throws Exception {
+        MvcResult started = mvc.perform(exportRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
     @AfterEach
     void afterEach() {
         String invocations = Mockito.mockingDetails(employeeService).printInvocations();
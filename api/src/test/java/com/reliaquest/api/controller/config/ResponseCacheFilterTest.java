@@ -0,0 +1,149 @@
+package com.reliaquest.api.controller.config;
+
+import com.reliaquest.api.service.CachedCalculationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+@ExtendWith(MockitoExtension.class)
+class ResponseCacheFilterTest {
+
+    private static final String PATH = "/employee/top-ten-highest-earning";
+    private static final String BODY = "[\"Mrs. Vallie Wolff\",\"Chas Shields\"]";
+
+    @Mock
+    private CachedCalculationService employeeService;
+
+    private final AtomicInteger rendered = new AtomicInteger();
+    private int status = HttpServletResponse.SC_OK;
+
+    private ResponseCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties =
+                new ResponseCacheProperties(Set.of(PATH), DataSize.ofMegabytes(1), DataSize.ofBytes(16));
+        filter = new ResponseCacheFilter(employeeService, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void doFilter_givenUnchangedRoster_servesCachedBytes() throws Exception {
+        when(employeeService.getRosterVersion()).thenReturn(1L);
+
+        MockHttpServletResponse first = perform(request());
+        MockHttpServletResponse second = perform(request());
+
+        assertEquals(1, rendered.get());
+        assertEquals(BODY, second.getContentAsString());
+        assertEquals(APPLICATION_JSON_VALUE, second.getContentType());
+        assertEquals(first.getHeader(ETAG), second.getHeader(ETAG));
+    }
+
+    @Test
+    void doFilter_givenCurrentEtag_returnsNotModified() throws Exception {
+        when(employeeService.getRosterVersion()).thenReturn(1L);
+        String etag = perform(request()).getHeader(ETAG);
+
+        MockHttpServletRequest conditional = request();
+        conditional.addHeader(IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = perform(conditional);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(1, rendered.get());
+    }
+
+    @Test
+    void doFilter_givenWeakCurrentEtag_returnsNotModified() throws Exception {
+        when(employeeService.getRosterVersion()).thenReturn(1L);
+        String etag = perform(request()).getHeader(ETAG);
+
+        MockHttpServletRequest conditional = request();
+        conditional.addHeader(IF_NONE_MATCH, "\"other\", W/" + etag);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, perform(conditional).getStatus());
+    }
+
+    @Test
+    void doFilter_givenChangedRoster_rendersAgain() throws Exception {
+        when(employeeService.getRosterVersion()).thenReturn(1L, 2L);
+
+        String before = perform(request()).getHeader(ETAG);
+        String after = perform(request()).getHeader(ETAG);
+
+        assertEquals(2, rendered.get());
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void doFilter_givenGzipAccepted_servesCompressedCopy() throws Exception {
+        when(employeeService.getRosterVersion()).thenReturn(1L);
+        MockHttpServletRequest request = request();
+        request.addHeader(ACCEPT_ENCODING, "gzip, deflate");
+
+        MockHttpServletResponse response = perform(request);
+
+        assertEquals("gzip", response.getHeader(CONTENT_ENCODING));
+        assertEquals(BODY, gunzip(response.getContentAsByteArray()));
+        assertNotEquals(perform(request()).getHeader(ETAG), response.getHeader(ETAG));
+    }
+
+    @Test
+    void doFilter_givenErrorResponse_doesNotCacheIt() throws Exception {
+        when(employeeService.getRosterVersion()).thenReturn(1L);
+        status = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+
+        assertEquals(status, perform(request()).getStatus());
+        status = HttpServletResponse.SC_OK;
+        assertEquals(BODY, perform(request()).getContentAsString());
+
+        assertEquals(2, rendered.get());
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                rendered.incrementAndGet();
+                resp.setStatus(status);
+                resp.setContentType(APPLICATION_JSON_VALUE);
+                resp.getOutputStream().write(BODY.getBytes(UTF_8));
+            }
+        }));
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", PATH);
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), UTF_8);
+        }
+    }
+}
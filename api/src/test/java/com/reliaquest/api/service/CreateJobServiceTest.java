@@ -0,0 +1,297 @@
+package com.reliaquest.api.service;
+
+import com.reliaquest.api.client.RateLimitProperties;
+import com.reliaquest.api.client.RateLimitedException;
+import com.reliaquest.api.client.TooManyRequestsDecoder;
+import com.reliaquest.api.client.api.BulkItemResult;
+import com.reliaquest.api.controller.api.CreateEmployeeRequest;
+import com.reliaquest.api.model.CreateJob;
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.service.exception.CreateQueueFullException;
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import feign.codec.ErrorDecoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
+@ExtendWith(MockitoExtension.class)
+class CreateJobServiceTest {
+
+    private static final CreateEmployeeRequest REQUEST = CreateEmployeeRequest.builder()
+            .age(25)
+            .salary(3000)
+            .title("Solution Engineer")
+            .name("Josh Billiam")
+            .build();
+    private static final CreateEmployeeRequest INVALID_REQUEST = CreateEmployeeRequest.builder()
+            .age(99)
+            .salary(3000)
+            .title("Solution Engineer")
+            .name("Old Timer")
+            .build();
+    private static final RateLimitProperties RATE_LIMIT = new RateLimitProperties(Duration.ofSeconds(1),
+            Duration.ofMillis(10), Duration.ofSeconds(1));
+    private static final Employee EMPLOYEE = new Employee(
+            UUID.fromString("d19a1323-caef-4280-bc78-95bab75c7827"),
+            "Josh Billiam",
+            3000,
+            25,
+            "Solution Engineer",
+            "josh.billiam@company.com");
+
+    @Mock
+    private CachedCalculationService employeeService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CreateJobService createJobService;
+
+    @AfterEach
+    void tearDown() {
+        createJobService.stop();
+    }
+
+    @Test
+    void submit_givenRequest_returnsPendingJobThatSucceeds() throws Exception {
+        createJobService = started(properties(20, 10, false));
+        when(employeeService.createOnce(REQUEST)).thenReturn(EMPLOYEE);
+
+        CreateJob job = createJobService.submit(REQUEST);
+
+        assertEquals(CreateJob.Status.PENDING, job.status());
+        CreateJob completed = awaitCompletion(job);
+        assertEquals(CreateJob.Status.SUCCEEDED, completed.status());
+        assertEquals(EMPLOYEE, completed.employee());
+        assertNotNull(completed.completedAt());
+    }
+
+    @Test
+    void submit_givenFailingCreate_reportsFailure() throws Exception {
+        createJobService = started(properties(20, 10, false));
+        when(employeeService.createOnce(REQUEST)).thenThrow(new IllegalStateException("upstream down"));
+
+        CreateJob completed = awaitCompletion(createJobService.submit(REQUEST));
+
+        assertEquals(CreateJob.Status.FAILED, completed.status());
+        assertEquals("upstream down", completed.error());
+        assertNull(completed.employee());
+    }
+
+    @Test
+    void submit_givenRateLimitedUpstream_retriesAfterWindow() throws Exception {
+        createJobService = started(properties(20, 10, false));
+        when(employeeService.createOnce(REQUEST))
+                .thenThrow(new RateLimitedException(request(), Duration.ofMillis(10)))
+                .thenReturn(EMPLOYEE);
+
+        CreateJob completed = awaitCompletion(createJobService.submit(REQUEST));
+
+        assertEquals(CreateJob.Status.SUCCEEDED, completed.status());
+        assertEquals(1, meterRegistry.get("employee.create.queue.drained").tag("outcome", "created").counter().count());
+        assertEquals(0, meterRegistry.get("employee.create.queue.depth").gauge().value());
+    }
+
+    @Test
+    void submit_givenFullQueue_rejectsJob() throws Exception {
+        createJobService = started(properties(1, 2, false));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(employeeService.createOnce(REQUEST)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return EMPLOYEE;
+        });
+
+        CreateJob sending = createJobService.submit(REQUEST);
+        started.await();
+        CreateJob queued = createJobService.submit(REQUEST);
+
+        assertThrows(CreateQueueFullException.class, () -> createJobService.submit(REQUEST));
+        assertEquals(asList(sending, queued), createJobService.getPending());
+        release.countDown();
+        assertEquals(CreateJob.Status.SUCCEEDED, awaitCompletion(queued).status());
+    }
+
+    @Test
+    void submit_givenBulk_completesEachJobFromItsResult() throws Exception {
+        createJobService = started(properties(20, 10, true));
+        when(employeeService.createAll(anyList())).thenAnswer(invocation -> bulkResults(invocation.getArgument(0)));
+
+        CreateJob succeeding = createJobService.submit(REQUEST);
+        CreateJob failing = createJobService.submit(INVALID_REQUEST);
+
+        assertEquals(EMPLOYEE, awaitCompletion(succeeding).employee());
+        CreateJob failed = awaitCompletion(failing);
+        assertEquals(CreateJob.Status.FAILED, failed.status());
+        assertEquals("age must be less than or equal to 75", failed.error());
+        verify(employeeService, never()).createOnce(any());
+    }
+
+    @Test
+    void submit_givenRateLimitedBulk_retriesBatchAfterWindow() throws Exception {
+        createJobService = started(properties(20, 10, true));
+        when(employeeService.createAll(anyList()))
+                .thenThrow(new RateLimitedException(request(), Duration.ofMillis(10)))
+                .thenAnswer(invocation -> bulkResults(invocation.getArgument(0)));
+
+        CreateJob completed = awaitCompletion(createJobService.submit(REQUEST));
+
+        assertEquals(CreateJob.Status.SUCCEEDED, completed.status());
+        assertEquals(0, meterRegistry.get("employee.create.queue.depth").gauge().value());
+    }
+
+    @Test
+    void submit_givenUpstreamTooManyRequests_retriesBatchAfterRetryAfter() throws Exception {
+        createJobService = started(properties(20, 10, true));
+        when(employeeService.createAll(anyList()))
+                .thenThrow(tooManyRequests(new TooManyRequestsDecoder(), "0"))
+                .thenThrow(tooManyRequests(new TooManyRequestsDecoder(), null))
+                .thenAnswer(invocation -> bulkResults(invocation.getArgument(0)));
+
+        CreateJob completed = awaitCompletion(createJobService.submit(REQUEST));
+
+        assertEquals(CreateJob.Status.SUCCEEDED, completed.status());
+        verify(employeeService, times(3)).createAll(anyList());
+        assertEquals(0, meterRegistry.get("employee.create.queue.drained").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void submit_givenTooManyRequestsDecodedAsRetryable_retriesAfterRetryAfter() throws Exception {
+        createJobService = started(properties(20, 10, false));
+        Exception refused = tooManyRequests(new ErrorDecoder.Default(), "0");
+        assertInstanceOf(RetryableException.class, refused);
+        when(employeeService.createOnce(REQUEST))
+                .thenThrow(refused)
+                .thenReturn(EMPLOYEE);
+
+        CreateJob completed = awaitCompletion(createJobService.submit(REQUEST));
+
+        assertEquals(CreateJob.Status.SUCCEEDED, completed.status());
+        verify(employeeService, times(2)).createOnce(REQUEST);
+        assertEquals(0, meterRegistry.get("employee.create.queue.drained").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void submit_givenBulkResultWithoutStatus_failsWithItsError() throws Exception {
+        createJobService = started(properties(20, 10, true));
+        when(employeeService.createAll(anyList()))
+                .thenReturn(List.of(new BulkItemResult(0, null, null, "unknown outcome")))
+                .thenReturn(List.of(new BulkItemResult(0, null, null, null)));
+
+        assertEquals("unknown outcome", awaitCompletion(createJobService.submit(REQUEST)).error());
+        assertEquals("No status from upstream", awaitCompletion(createJobService.submit(REQUEST)).error());
+    }
+
+    @Test
+    void submit_givenFailingBulk_failsWholeBatch() throws Exception {
+        createJobService = started(properties(20, 10, true));
+        when(employeeService.createAll(anyList())).thenThrow(new IllegalStateException("upstream down"));
+
+        CreateJob completed = awaitCompletion(createJobService.submit(REQUEST));
+
+        assertEquals(CreateJob.Status.FAILED, completed.status());
+        assertEquals("upstream down", completed.error());
+    }
+
+    @Test
+    void submit_givenUnexpectedErrorInBatch_failsItAndKeepsDraining() throws Exception {
+        createJobService = started(properties(20, 10, true));
+        when(employeeService.createAll(anyList()))
+                .thenReturn(null)
+                .thenAnswer(invocation -> bulkResults(invocation.getArgument(0)));
+
+        assertEquals(CreateJob.Status.FAILED, awaitCompletion(createJobService.submit(REQUEST)).status());
+
+        assertEquals(CreateJob.Status.SUCCEEDED, awaitCompletion(createJobService.submit(REQUEST)).status());
+        assertEquals(0, meterRegistry.get("employee.create.queue.depth").gauge().value());
+    }
+
+    @Test
+    void submit_beforeStart_queuesUntilDrainerStarts() throws Exception {
+        createJobService = new CreateJobService(employeeService, properties(20, 10, false), RATE_LIMIT, meterRegistry);
+
+        CreateJob job = createJobService.submit(REQUEST);
+
+        assertEquals(List.of(job), createJobService.getPending());
+        verifyNoInteractions(employeeService);
+        when(employeeService.createOnce(REQUEST)).thenReturn(EMPLOYEE);
+        createJobService.start();
+        assertEquals(CreateJob.Status.SUCCEEDED, awaitCompletion(job).status());
+    }
+
+    @Test
+    void get_givenUnknownId_returnsEmpty() {
+        createJobService = started(properties(20, 10, false));
+
+        assertTrue(createJobService.get(UUID.randomUUID().toString()).isEmpty());
+    }
+
+    private CreateJobService started(CreateJobProperties properties) {
+        CreateJobService service = new CreateJobService(employeeService, properties, RATE_LIMIT, meterRegistry);
+        service.start();
+        return service;
+    }
+
+    private CreateJob awaitCompletion(CreateJob job) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            CreateJob current = createJobService.get(job.id().toString()).orElseThrow();
+            if (current.status() != CreateJob.Status.PENDING) {
+                return current;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Job did not complete: " + job.id());
+    }
+
+    private static List<BulkItemResult> bulkResults(List<CreateEmployeeRequest> requests) {
+        return IntStream.range(0, requests.size())
+                .mapToObj(i -> requests.get(i).equals(REQUEST)
+                        ? new BulkItemResult(i, BulkItemResult.Status.CREATED, EMPLOYEE, null)
+                        : new BulkItemResult(i, BulkItemResult.Status.INVALID, null,
+                        "age must be less than or equal to 75"))
+                .toList();
+    }
+
+    private static CreateJobProperties properties(int batchSize, int queueCapacity, boolean bulk) {
+        return new CreateJobProperties(batchSize, queueCapacity, Duration.ofMinutes(1), bulk);
+    }
+
+    /**
+     * A 429 from the upstream as the given decoder turns it into an exception.
+     */
+    private static Exception tooManyRequests(ErrorDecoder decoder, String retryAfter) {
+        Map<String, Collection<String>> headers = retryAfter == null ? Map.of()
+                : Map.of(RETRY_AFTER, List.of(retryAfter));
+        return decoder.decode("EmployeeClient#createAll(List)", Response.builder()
+                .status(429)
+                .reason("Too Many Requests")
+                .headers(headers)
+                .body("Too many requests.", StandardCharsets.UTF_8)
+                .request(request())
+                .build());
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.POST, "http://localhost/api/v1/employee", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+}
@@ -1,18 +1,37 @@
 package com.reliaquest.api.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reliaquest.api.client.EmployeeClient;
+import com.reliaquest.api.client.RosterReader;
+import com.reliaquest.api.client.SingleFlight;
 import com.reliaquest.api.client.api.DeleteEmployeeRequest;
+import com.reliaquest.api.client.api.EmployeeChange;
+import com.reliaquest.api.client.api.EmployeeChanges;
 import com.reliaquest.api.client.api.Response;
 import com.reliaquest.api.controller.api.CreateEmployeeRequest;
 import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.EmployeePage;
+import com.reliaquest.api.service.exception.EmployeeNotCreatedException;
+import com.reliaquest.api.service.exception.InvalidCursorException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 import static java.util.Arrays.asList;
@@ -55,20 +74,27 @@ class EmployeeServiceTest {
             .name("John Doe")
             .build();
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final RosterProperties ROSTER_PROPERTIES =
+            new RosterProperties(Duration.ofMinutes(5), Duration.ofMinutes(10));
+
     @Mock
     private EmployeeClient employeeClient;
 
-    @InjectMocks
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager("employees");
+
     private CachedCalculationService employeeService;
 
     @BeforeEach
     void setUp() {
         CachedCalculationService.invalidateCache();
+        employeeService = new CachedCalculationService(employeeClient, rosterReader(), ROSTER_PROPERTIES,
+                singleFlight(), cacheManager);
     }
 
     @Test
     void getAll_callsExternal_returnsAllEmployees() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
 
         assertEquals(asList(EMPLOYEE_2, EMPLOYEE), employeeService.getAll());
     }
@@ -82,12 +108,38 @@ class EmployeeServiceTest {
 
     @Test
     void getName_givenNameFragment_findsEmployee() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2, NEW_EMPLOYEE), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2, NEW_EMPLOYEE)));
 
         assertThat(employeeService.getByName("Bill"))
                 .containsExactlyInAnyOrderElementsOf(asList(EMPLOYEE, NEW_EMPLOYEE));
     }
 
+    @Test
+    void getPage_givenCursors_walksRosterInIdOrder() {
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2, NEW_EMPLOYEE)));
+
+        EmployeePage<Employee> first = employeeService.getPage(null, 2);
+        EmployeePage<Employee> second = employeeService.getPage(first.nextCursor(), 2);
+
+        assertEquals(asList(NEW_EMPLOYEE, EMPLOYEE_2), first.employees());
+        assertEquals(singletonList(EMPLOYEE), second.employees());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void getPage_givenPageEndingAtLastEmployee_returnsNoCursor() {
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
+
+        assertNull(employeeService.getPage(null, 2).nextCursor());
+    }
+
+    @Test
+    void getPage_givenMalformedCursor_throws() {
+        when(employeeClient.getAll()).thenReturn(roster(singletonList(EMPLOYEE)));
+
+        assertThrows(InvalidCursorException.class, () -> employeeService.getPage("not a cursor!", 2));
+    }
+
     @Test
     void create_callsExternal_returnsEmployee() {
         CreateEmployeeRequest request = CreateEmployeeRequest.builder()
@@ -101,6 +153,13 @@ class EmployeeServiceTest {
         assertEquals(NEW_EMPLOYEE, employeeService.create(request));
     }
 
+    @Test
+    void create_givenRetriesExhausted_throwsNotCreated() {
+        when(employeeClient.create(NEW_EMPLOYEE_REQUEST)).thenReturn(new Response<>(null, "Temporarily unavailable"));
+
+        assertThrows(EmployeeNotCreatedException.class, () -> employeeService.create(NEW_EMPLOYEE_REQUEST));
+    }
+
     @Test
     void delete_callsExternal_returnsEmployeeName() {
         when(employeeClient.getById(EMPLOYEE_ID)).thenReturn(new Response<>(EMPLOYEE, STATUS));
@@ -121,14 +180,14 @@ class EmployeeServiceTest {
 
     @Test
     void getHighestSalary_returnsHighestSalary() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
 
         assertEquals(2000, employeeService.getHighestSalary());
     }
 
     @Test
     void getTopTenEmployeeNames_returnsTopTenEmployeeNames() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
 
         assertEquals(asList(EMPLOYEE_NAME_2, EMPLOYEE_NAME), employeeService.getTopTenEmployees());
     }
@@ -137,7 +196,7 @@ class EmployeeServiceTest {
 
     @Test
     void getAll_calledTwice_callsExternalOnce() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
 
         employeeService.getAll();
         employeeService.getAll();
@@ -147,7 +206,7 @@ class EmployeeServiceTest {
 
     @Test
     void getById_givenPopulatedCache_doesntCallExternalOnce() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
 
         employeeService.getAll();
 
@@ -159,7 +218,7 @@ class EmployeeServiceTest {
 
     @Test
     void getByName_calledTwice_callsExternalOnce() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
 
         employeeService.getByName(EMPLOYEE_NAME);
         employeeService.getByName(EMPLOYEE_NAME);
@@ -169,7 +228,7 @@ class EmployeeServiceTest {
 
     @Test
     void getHighestSalary_calledTwice_callsExternalOnce() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
 
         employeeService.getHighestSalary();
         employeeService.getHighestSalary();
@@ -179,7 +238,7 @@ class EmployeeServiceTest {
 
     @Test
     void getTopTen_calledTwice_callsExternalOnce() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
 
         employeeService.getTopTenEmployees();
         employeeService.getTopTenEmployees();
@@ -189,7 +248,7 @@ class EmployeeServiceTest {
 
     @Test
     void create_givenPopulatedCache_updatesCache() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
 
         when(employeeClient.create(NEW_EMPLOYEE_REQUEST)).thenReturn(new Response<>(NEW_EMPLOYEE, STATUS));
 
@@ -208,7 +267,7 @@ class EmployeeServiceTest {
 
     @Test
     void delete_givenPopulatedCache_recalculatesCache() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(asList(EMPLOYEE, EMPLOYEE_2, NEW_EMPLOYEE), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2, NEW_EMPLOYEE)));
         DeleteEmployeeRequest deleteEmployeeRequest = new DeleteEmployeeRequest(NEW_EMPLOYEE_NAME);
         when(employeeClient.delete(deleteEmployeeRequest)).thenReturn(new Response<>(true, STATUS));
 
@@ -232,38 +291,207 @@ class EmployeeServiceTest {
 
     @Test
     void delete_clearsSearchCache() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(singletonList(EMPLOYEE), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(singletonList(EMPLOYEE)));
         DeleteEmployeeRequest deleteEmployeeRequest = new DeleteEmployeeRequest(EMPLOYEE_NAME);
         when(employeeClient.delete(deleteEmployeeRequest)).thenReturn(new Response<>(true, STATUS));
 
         employeeService.getAll();
 
-        assertTrue(CachedCalculationService.getSEARCH_CACHE().isEmpty());
+        assertTrue(CachedCalculationService.getSEARCH_CACHE().asMap().isEmpty());
 
         employeeService.getByName("Bill");
 
-        assertTrue(CachedCalculationService.getSEARCH_CACHE().containsKey("bill"));
+        assertTrue(CachedCalculationService.getSEARCH_CACHE().asMap().containsKey("bill"));
 
         employeeService.delete(EMPLOYEE_ID);
 
-        assertTrue(CachedCalculationService.getSEARCH_CACHE().isEmpty());
+        assertTrue(CachedCalculationService.getSEARCH_CACHE().asMap().isEmpty());
     }
 
     @Test
     void create_clearsSearchCache() {
-        when(employeeClient.getAll()).thenReturn(new Response<>(singletonList(EMPLOYEE), STATUS));
+        when(employeeClient.getAll()).thenReturn(roster(singletonList(EMPLOYEE)));
         when(employeeClient.create(NEW_EMPLOYEE_REQUEST)).thenReturn(new Response<>(NEW_EMPLOYEE, STATUS));
 
         employeeService.getAll();
 
-        assertTrue(CachedCalculationService.getSEARCH_CACHE().isEmpty());
+        assertTrue(CachedCalculationService.getSEARCH_CACHE().asMap().isEmpty());
 
         employeeService.getByName("Bill");
 
-        assertTrue(CachedCalculationService.getSEARCH_CACHE().containsKey("bill"));
+        assertTrue(CachedCalculationService.getSEARCH_CACHE().asMap().containsKey("bill"));
 
         employeeService.create(NEW_EMPLOYEE_REQUEST);
 
-        assertTrue(CachedCalculationService.getSEARCH_CACHE().isEmpty());
+        assertTrue(CachedCalculationService.getSEARCH_CACHE().asMap().isEmpty());
+    }
+
+    @Test
+    void create_givenUnrelatedName_keepsOtherSearches() {
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
+        when(employeeClient.create(NEW_EMPLOYEE_REQUEST)).thenReturn(new Response<>(NEW_EMPLOYEE, STATUS));
+
+        employeeService.getByName("Bob");
+        employeeService.getByName("Josh");
+
+        employeeService.create(NEW_EMPLOYEE_REQUEST);
+
+        assertTrue(CachedCalculationService.getSEARCH_CACHE().asMap().containsKey("bob"));
+        assertFalse(CachedCalculationService.getSEARCH_CACHE().asMap().containsKey("josh"));
+        assertEquals(singletonList(NEW_EMPLOYEE), employeeService.getByName("Josh"));
+    }
+
+    @Test
+    void create_givenLargeSearchCache_evictsOnlyTermsInName() {
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
+        when(employeeClient.create(NEW_EMPLOYEE_REQUEST)).thenReturn(new Response<>(NEW_EMPLOYEE, STATUS));
+
+        employeeService.getByName("Josh");
+        long version = employeeService.getRosterVersion();
+        for (int i = 0; i < 1000; i++) {
+            CachedCalculationService.getSEARCH_CACHE()
+                    .put("unrelated " + i, new CachedCalculationService.SearchResult(version, List.of()));
+        }
+
+        employeeService.create(NEW_EMPLOYEE_REQUEST);
+
+        assertFalse(CachedCalculationService.getSEARCH_CACHE().asMap().containsKey("josh"));
+        assertEquals(1000, CachedCalculationService.getSEARCH_CACHE().asMap().size());
+    }
+
+    // refresh tests
+
+    @Test
+    void refresh_givenChangedUpstream_replacesRoster() {
+        when(employeeClient.getAll())
+                .thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)))
+                .thenReturn(roster(asList(EMPLOYEE_2, NEW_EMPLOYEE)));
+
+        employeeService.getAll();
+        employeeService.refresh();
+
+        assertThat(employeeService.getAll()).containsExactlyInAnyOrder(EMPLOYEE_2, NEW_EMPLOYEE);
+        assertEquals(3000, employeeService.getHighestSalary());
+    }
+
+    @Test
+    void refresh_givenSyncedRoster_appliesUpstreamChanges() {
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2), 10));
+        when(employeeClient.getChanges(10)).thenReturn(new Response<>(new EmployeeChanges(12, false, asList(
+                new EmployeeChange(11, EmployeeChange.Type.CREATED, NEW_EMPLOYEE),
+                new EmployeeChange(12, EmployeeChange.Type.DELETED, EMPLOYEE))), STATUS));
+
+        employeeService.getAll();
+        employeeService.refresh();
+
+        assertThat(employeeService.getAll()).containsExactlyInAnyOrder(EMPLOYEE_2, NEW_EMPLOYEE);
+        assertEquals(3000, employeeService.getHighestSalary());
+        verify(employeeClient).getAll();
+    }
+
+    @Test
+    void refresh_givenSyncedRoster_evictsChangedEmployeesFromCache() {
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2), 10));
+        when(employeeClient.getChanges(10)).thenReturn(new Response<>(new EmployeeChanges(12, false, asList(
+                new EmployeeChange(11, EmployeeChange.Type.CREATED, NEW_EMPLOYEE),
+                new EmployeeChange(12, EmployeeChange.Type.DELETED, EMPLOYEE))), STATUS));
+        employeeService.getAll();
+        Cache cache = cacheManager.getCache("employees");
+        cache.put(EMPLOYEE_ID, Optional.of(EMPLOYEE));
+        cache.put(NEW_EMPLOYEE_ID, Optional.empty());
+        cache.put(EMPLOYEE_ID_2, Optional.of(EMPLOYEE_2));
+
+        employeeService.refresh();
+
+        assertNull(cache.get(EMPLOYEE_ID));
+        assertNull(cache.get(NEW_EMPLOYEE_ID));
+        assertNotNull(cache.get(EMPLOYEE_ID_2));
+    }
+
+    @Test
+    void refresh_givenTruncatedChanges_readsWholeRoster() {
+        when(employeeClient.getAll())
+                .thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2), 10))
+                .thenReturn(roster(singletonList(NEW_EMPLOYEE), 20));
+        when(employeeClient.getChanges(10)).thenReturn(new Response<>(new EmployeeChanges(20, true, List.of()), STATUS));
+
+        employeeService.getAll();
+        employeeService.refresh();
+
+        assertEquals(singletonList(NEW_EMPLOYEE), employeeService.getAll());
+        verify(employeeClient, times(2)).getAll();
+    }
+
+    @Test
+    void apply_givenNextPushedChange_appliesItWithoutCallingExternal() {
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2), 10));
+        employeeService.getAll();
+
+        employeeService.apply(new EmployeeChange(11, EmployeeChange.Type.CREATED, NEW_EMPLOYEE));
+        employeeService.apply(new EmployeeChange(11, EmployeeChange.Type.CREATED, NEW_EMPLOYEE));
+
+        assertEquals(asList(NEW_EMPLOYEE, EMPLOYEE_2, EMPLOYEE), employeeService.getAll());
+        assertEquals(OptionalLong.of(11), employeeService.getUpstreamSequence());
+        verify(employeeClient).getAll();
+        verify(employeeClient, never()).getChanges(anyLong());
+    }
+
+    @Test
+    void apply_givenGapBeforePushedChange_catchesUpThroughChangeLog() {
+        when(employeeClient.getAll()).thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2), 10));
+        when(employeeClient.getChanges(10)).thenReturn(new Response<>(new EmployeeChanges(12, false, asList(
+                new EmployeeChange(11, EmployeeChange.Type.DELETED, EMPLOYEE_2),
+                new EmployeeChange(12, EmployeeChange.Type.CREATED, NEW_EMPLOYEE))), STATUS));
+        employeeService.getAll();
+
+        employeeService.apply(new EmployeeChange(12, EmployeeChange.Type.CREATED, NEW_EMPLOYEE));
+
+        assertEquals(asList(NEW_EMPLOYEE, EMPLOYEE), employeeService.getAll());
+        assertEquals(OptionalLong.of(12), employeeService.getUpstreamSequence());
+    }
+
+    @Test
+    void getAll_givenStaleRoster_servesSnapshotAndRefreshesInBackground() {
+        CachedCalculationService staleService =
+                new CachedCalculationService(employeeClient, rosterReader(),
+                        new RosterProperties(Duration.ofMinutes(5), Duration.ZERO), singleFlight(), cacheManager);
+        when(employeeClient.getAll())
+                .thenReturn(roster(singletonList(EMPLOYEE)))
+                .thenReturn(roster(asList(EMPLOYEE, EMPLOYEE_2)));
+
+        assertEquals(singletonList(EMPLOYEE), staleService.getAll());
+        assertEquals(singletonList(EMPLOYEE), staleService.getAll());
+
+        verify(employeeClient, timeout(1000).times(2)).getAll();
+    }
+
+    private RosterReader rosterReader() {
+        return new RosterReader(employeeClient, OBJECT_MAPPER);
+    }
+
+    private static SingleFlight singleFlight() {
+        return new SingleFlight(new SimpleMeterRegistry());
+    }
+
+    private static feign.Response roster(List<Employee> employees) {
+        return roster(employees, Map.of());
+    }
+
+    private static feign.Response roster(List<Employee> employees, long changeSequence) {
+        return roster(employees, Map.of("X-Change-Sequence", List.of(String.valueOf(changeSequence))));
+    }
+
+    private static feign.Response roster(List<Employee> employees, Map<String, Collection<String>> headers) {
+        try {
+            return feign.Response.builder()
+                    .status(200)
+                    .request(Request.create(Request.HttpMethod.GET, "http://localhost/api/v1/employee", Map.of(), null,
+                            StandardCharsets.UTF_8, null))
+                    .headers(headers)
+                    .body(OBJECT_MAPPER.writeValueAsBytes(new Response<>(employees, STATUS)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
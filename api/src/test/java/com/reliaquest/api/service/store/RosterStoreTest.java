@@ -0,0 +1,310 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.model.SalaryRank;
+import com.reliaquest.api.model.ValueStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RosterStoreTest {
+
+    private final RosterStore store = new RosterStore();
+
+    @Test
+    void replaceAll_givenEmployees_publishesLoadedSnapshot() {
+        List<Employee> employees = employees(3);
+
+        RosterSnapshot snapshot = store.replaceAll(employees);
+
+        assertThat(snapshot.loaded()).isTrue();
+        assertThat(snapshot.employees().values()).containsExactlyInAnyOrderElementsOf(employees);
+        assertEquals(Optional.of(1200), snapshot.highestSalary());
+    }
+
+    @Test
+    void putAll_givenEmployees_publishesThemInOneWrite() {
+        RosterSnapshot before = store.replaceAll(employees(2));
+        List<Employee> added = List.of(employee(5000), employee(6000));
+
+        RosterSnapshot after = store.putAll(added);
+
+        assertEquals(before.version() + 1, after.version());
+        assertEquals(4, after.employees().size());
+        assertEquals(Optional.of(6000), after.highestSalary());
+    }
+
+    @Test
+    void put_keepsPreviousSnapshotUnchanged() {
+        RosterSnapshot before = store.replaceAll(employees(2));
+        Employee newcomer = employee(5000);
+
+        RosterSnapshot after = store.put(newcomer);
+
+        assertEquals(2, before.employees().size());
+        assertEquals(3, after.employees().size());
+        assertEquals(before.version() + 1, after.version());
+        assertEquals(newcomer, after.topEmployees(10).get(0));
+    }
+
+    @Test
+    void remove_givenTopEarner_recalculatesTopEmployees() {
+        List<Employee> employees = employees(12);
+        store.replaceAll(employees);
+
+        RosterSnapshot snapshot = store.remove(employees.get(11).id().toString());
+
+        assertEquals(10, snapshot.topEmployees(10).size());
+        assertEquals(Optional.of(2000), snapshot.highestSalary());
+    }
+
+    @Test
+    void remove_givenUnknownId_keepsSnapshot() {
+        RosterSnapshot before = store.replaceAll(employees(2));
+
+        assertSame(before, store.remove(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void replaceAll_givenStreamedRoster_removesEmployeesMissingFromIt() {
+        List<Employee> employees = employees(3);
+        RosterSnapshot before = store.replaceAll(employees);
+        Employee raised = new Employee(employees.get(0).id(), "Employee 1000", 5000, 30, "Engineer",
+                "employee@company.com");
+
+        RosterSnapshot after = store.replaceAll(before.version(), asList(raised, employees.get(2)).iterator())
+                .orElseThrow();
+
+        assertThat(after.employees().values()).containsExactlyInAnyOrder(raised, employees.get(2));
+        assertEquals(Optional.of(5000), after.highestSalary());
+    }
+
+    @Test
+    void replaceAll_givenStreamedRosterAfterConcurrentWrite_givesUp() {
+        RosterSnapshot before = store.replaceAll(employees(2));
+        RosterSnapshot written = store.put(employee(5000));
+
+        assertEquals(Optional.empty(), store.replaceAll(before.version(), employees(1).iterator()));
+        assertSame(written, store.current());
+    }
+
+    @Test
+    void replaceAll_givenLocalWriteWhileStreaming_replaysItOnTop() {
+        RosterSnapshot before = store.replaceAll(employees(2));
+        List<Employee> upstream = employees(3);
+        Employee created = employee(5000);
+
+        RosterSnapshot after = store.replaceAll(before.version(), whileReading(upstream, () -> store.put(created)))
+                .orElseThrow();
+
+        assertThat(after.employees().values()).containsExactlyInAnyOrder(
+                upstream.get(0), upstream.get(1), upstream.get(2), created);
+        assertEquals(before.version() + 2, after.version());
+        assertSame(after, store.current());
+    }
+
+    @Test
+    void replaceAll_givenUpstreamChangesWhileStreaming_replaysOnlyThoseAfterRead() {
+        List<Employee> employees = employees(2);
+        store.replaceAll(store.current().version(), employees.iterator(), 10L);
+        Employee created = employee(5000);
+        Employee raised = new Employee(employees.get(1).id(), "Employee 1100", 6000, 30, "Engineer",
+                "employee@company.com");
+        String removed = employees.get(0).id().toString();
+
+        RosterSnapshot after = store.replaceAll(store.current().version(), whileReading(
+                        asList(employees.get(0), raised, created), () -> {
+                            store.applyChanges(10L, 11L, List.of(RosterChange.put(created)));
+                            store.applyChanges(11L, 13L,
+                                    asList(RosterChange.put(raised), RosterChange.remove(removed)));
+                        }), 12L)
+                .orElseThrow();
+
+        assertThat(after.employees().values()).containsExactlyInAnyOrder(raised, created);
+        assertEquals(13L, after.upstreamSequence());
+    }
+
+    @Test
+    void replaceAll_givenRosterClearedWhileStreaming_givesUp() {
+        RosterSnapshot before = store.replaceAll(employees(2));
+
+        assertEquals(Optional.empty(), store.replaceAll(before.version(), whileReading(employees(1), store::clear)));
+    }
+
+    @Test
+    void applyChanges_givenLocalWriteAlreadyApplied_replaysOnTopOfIt() {
+        List<Employee> employees = employees(2);
+        store.replaceAll(store.current().version(), employees.iterator(), 10L);
+        Employee created = employee(5000);
+        store.put(created);
+
+        RosterSnapshot snapshot = store.applyChanges(10L, 12L, asList(
+                        RosterChange.put(created),
+                        RosterChange.remove(employees.get(0).id().toString())))
+                .orElseThrow();
+
+        assertThat(snapshot.employees().values()).containsExactlyInAnyOrder(employees.get(1), created);
+        assertEquals(12L, snapshot.upstreamSequence());
+        assertEquals(Optional.of(5000), snapshot.highestSalary());
+    }
+
+    @Test
+    void applyChanges_givenOtherSequence_givesUp() {
+        RosterSnapshot before = store.replaceAll(store.current().version(), employees(2).iterator(), 10L)
+                .orElseThrow();
+
+        assertEquals(Optional.empty(), store.applyChanges(9L, 12L, List.of(RosterChange.put(employee(5000)))));
+        assertSame(before, store.current());
+    }
+
+    @Test
+    void page_givenIdRemovedSinceLastPage_continuesAfterIt() {
+        List<Employee> employees = employees(5).stream()
+                .sorted(Comparator.comparing(employee -> employee.id().toString()))
+                .toList();
+        store.replaceAll(employees);
+        List<Employee> firstPage = store.current().page(null, 2);
+
+        RosterSnapshot snapshot = store.remove(firstPage.get(1).id().toString());
+
+        assertEquals(employees.subList(0, 2), firstPage);
+        assertEquals(employees.subList(2, 4), snapshot.page(firstPage.get(1).id().toString(), 2));
+        assertEquals(employees.subList(4, 5), snapshot.page(employees.get(3).id().toString(), 2));
+    }
+
+    @Test
+    void topEmployees_givenEqualSalaries_keepsBoth() {
+        Employee first = employee(1000);
+        Employee second = employee(1000);
+
+        RosterSnapshot snapshot = store.replaceAll(asList(first, second));
+
+        assertThat(snapshot.topEmployees(10)).containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    void searchByName_givenFragment_findsCaseInsensitiveSubstrings() {
+        Employee billy = named("Billy Bob");
+        Employee josh = named("Josh Billiam");
+        Employee aki = named("Áki Ármannsson");
+
+        RosterSnapshot snapshot = store.replaceAll(asList(billy, josh, aki));
+
+        assertThat(snapshot.searchByName("BILL")).containsExactlyInAnyOrder(billy, josh);
+        assertThat(snapshot.searchByName("ármann")).containsExactly(aki);
+        assertThat(snapshot.searchByName("bi")).containsExactlyInAnyOrder(billy, josh);
+        assertThat(snapshot.searchByName("xyz")).isEmpty();
+    }
+
+    @Test
+    void searchByName_afterRenameAndRemove_updatesIndex() {
+        Employee billy = named("Billy Bob");
+        Employee josh = named("Josh Billiam");
+        store.replaceAll(asList(billy, josh));
+
+        store.put(new Employee(billy.id(), "William Bob", 1000, 30, "Engineer", "employee@company.com"));
+        RosterSnapshot snapshot = store.remove(josh.id().toString());
+
+        assertThat(snapshot.searchByName("bill")).isEmpty();
+        assertThat(snapshot.searchByName("liam")).extracting(Employee::employeeName).containsExactly("William Bob");
+    }
+
+    @Test
+    void topEmployees_givenAnyCount_returnsHighestEarnersFirst() {
+        List<Employee> employees = employees(25);
+
+        RosterSnapshot snapshot = store.replaceAll(employees);
+
+        assertThat(snapshot.topEmployees(15))
+                .extracting(Employee::employeeSalary)
+                .containsExactly(3400, 3300, 3200, 3100, 3000, 2900, 2800, 2700, 2600, 2500, 2400, 2300, 2200, 2100,
+                        2000);
+        assertEquals(25, snapshot.topEmployees(100).size());
+    }
+
+    @Test
+    void salaryRank_givenTies_sharesRankAndSplitsPercentile() {
+        Employee low = employee(1000);
+        Employee tiedFirst = employee(2000);
+        Employee tiedSecond = employee(2000);
+        Employee high = employee(3000);
+        RosterSnapshot snapshot = store.replaceAll(asList(low, tiedFirst, tiedSecond, high));
+
+        SalaryRank first = snapshot.salaryRank(tiedFirst.id().toString()).orElseThrow();
+        SalaryRank second = snapshot.salaryRank(tiedSecond.id().toString()).orElseThrow();
+
+        assertEquals(2, first.rank());
+        assertEquals(first, new SalaryRank(tiedFirst.id(), 2000, 2, 4, 50.0));
+        assertEquals(second, new SalaryRank(tiedSecond.id(), 2000, 2, 4, 50.0));
+        assertEquals(1, snapshot.salaryRank(high.id().toString()).orElseThrow().rank());
+        assertEquals(12.5, snapshot.salaryRank(low.id().toString()).orElseThrow().percentile());
+    }
+
+    @Test
+    void salaryRank_afterRaise_movesEmployeeUp() {
+        Employee low = employee(1000);
+        Employee high = employee(3000);
+        store.replaceAll(asList(low, high));
+
+        RosterSnapshot snapshot = store.put(new Employee(low.id(), low.employeeName(), 5000, 30, "Engineer",
+                "employee@company.com"));
+
+        assertEquals(1, snapshot.salaryRank(low.id().toString()).orElseThrow().rank());
+        assertEquals(Optional.of(5000), snapshot.highestSalary());
+    }
+
+    @Test
+    void salaryStatistics_afterPutAndRemove_tracksRoster() {
+        Employee low = employee(1000);
+        store.replaceAll(asList(low, employee(2000), employee(3000)));
+
+        store.put(employee(4000));
+        RosterSnapshot snapshot = store.remove(low.id().toString());
+
+        ValueStatistics statistics = snapshot.salaryStatistics(asList(0.0, 1.0), 2);
+        assertEquals(3L, statistics.count());
+        assertEquals(9000L, statistics.sum());
+        assertEquals(2000L, statistics.min());
+        assertEquals(4000L, statistics.max());
+        assertThat(statistics.quantiles()).extracting(ValueStatistics.Quantile::value).containsExactly(2000L, 4000L);
+        assertThat(statistics.histogram()).extracting(ValueStatistics.Bucket::count).containsExactly(2L, 1L);
+        assertEquals(3L, snapshot.ageStatistics(asList(0.5), 1).count());
+    }
+
+    /**
+     * Streams {@code employees}, running {@code write} once the first is asked for.
+     */
+    private static Iterator<Employee> whileReading(List<Employee> employees, Runnable write) {
+        return Stream.of(employees)
+                .flatMap(all -> {
+                    write.run();
+                    return all.stream();
+                })
+                .iterator();
+    }
+
+    private static List<Employee> employees(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> employee(1000 + i * 100))
+                .toList();
+    }
+
+    private static Employee named(String name) {
+        return new Employee(UUID.randomUUID(), name, 1000, 30, "Engineer", "employee@company.com");
+    }
+
+    private static Employee employee(int salary) {
+        return new Employee(UUID.randomUUID(), "Employee " + salary, salary, 30, "Engineer", "employee@company.com");
+    }
+}
@@ -0,0 +1,60 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTest {
+
+    private static final List<Employee> EMPLOYEES = List.of(
+            new Employee(UUID.randomUUID(), "Mrs. Eleanora Predovic", 278736, 41, "Advertising Representative",
+                    "bitchin_blair@company.com"),
+            new Employee(UUID.randomUUID(), "Chas Shields", 95000, 29, null, null));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_givenWrittenSnapshot_restoresRoster() throws IOException {
+        Path path = directory.resolve("roster.bin");
+        RosterStore saved = new RosterStore();
+        saved.replaceAll(saved.current().version(), EMPLOYEES.iterator(), 42L);
+        SnapshotFile.write(saved.current(), path);
+
+        RosterStore store = new RosterStore();
+        RosterSnapshot restored = store.restore(SnapshotFile.read(path)).orElseThrow();
+
+        assertThat(restored.employees().values()).containsExactlyInAnyOrderElementsOf(EMPLOYEES);
+        assertEquals(42L, restored.upstreamSequence());
+        assertEquals(Optional.of(278736), restored.highestSalary());
+        assertEquals(List.of(EMPLOYEES.get(1)), restored.searchByName("shields"));
+    }
+
+    @Test
+    void restore_givenLoadedRoster_keepsIt() throws IOException {
+        Path path = directory.resolve("roster.bin");
+        RosterStore store = new RosterStore();
+        SnapshotFile.write(store.replaceAll(EMPLOYEES), path);
+        RosterSnapshot loaded = store.replaceAll(EMPLOYEES.subList(0, 1));
+
+        assertEquals(Optional.empty(), store.restore(SnapshotFile.read(path)));
+        assertSame(loaded, store.current());
+    }
+
+    @Test
+    void read_givenOtherFile_throws() throws IOException {
+        Path path = Files.writeString(directory.resolve("roster.bin"), "{\"data\": []}");
+
+        assertThrows(IOException.class, () -> SnapshotFile.read(path));
+    }
+}
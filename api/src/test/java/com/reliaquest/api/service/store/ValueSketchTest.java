@@ -0,0 +1,92 @@
+package com.reliaquest.api.service.store;
+
+import com.reliaquest.api.model.ValueStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ValueSketchTest {
+
+    @Test
+    void quantile_givenManyValues_staysWithinRelativeAccuracy() {
+        int[] values = new Random(42).ints(10_000, 20_000, 500_000).sorted().toArray();
+        ValueSketch sketch = sketch(values);
+
+        for (double quantile : new double[]{0, 0.5, 0.9, 0.99, 1}) {
+            int exact = values[(int) (quantile * (values.length - 1))];
+            assertThat((double) sketch.quantile(quantile).orElseThrow())
+                    .isCloseTo(exact, within(exact * ValueSketch.RELATIVE_ACCURACY + 1));
+        }
+        assertEquals(IntStream.of(values).asLongStream().sum(), sketch.sum());
+    }
+
+    @Test
+    void quantile_givenSmallValues_isExact() {
+        ValueSketch sketch = sketch(16, 25, 25, 40, 75);
+
+        assertEquals(OptionalLong.of(16), sketch.min());
+        assertEquals(OptionalLong.of(25), sketch.quantile(0.5));
+        assertEquals(OptionalLong.of(75), sketch.max());
+    }
+
+    @Test
+    void remove_givenAddedValues_returnsToEmpty() {
+        ValueSketch sketch = sketch(100, 2000, 30_000);
+
+        ValueSketch removed = sketch.toBuilder().remove(2000).remove(100).remove(30_000).build();
+
+        assertSame(ValueSketch.empty(), removed);
+        assertEquals(OptionalLong.empty(), removed.quantile(0.5));
+    }
+
+    @Test
+    void add_givenNegativeValue_countsItAsRejected() {
+        ValueSketch sketch = ValueSketch.empty().toBuilder().add(30).add(-5).add(40).build();
+
+        assertEquals(2, sketch.count());
+        assertEquals(70, sketch.sum());
+        assertEquals(1, sketch.rejected());
+        assertEquals(OptionalLong.of(30), sketch.min());
+
+        assertSame(ValueSketch.empty(), sketch.toBuilder().remove(-5).remove(30).remove(40).build());
+    }
+
+    @Test
+    void merge_givenTwoSketches_equalsSketchOfAllValues() {
+        ValueSketch merged = sketch(30, 40).merge(sketch(20, 50, 60));
+
+        assertEquals(5, merged.count());
+        assertEquals(200, merged.sum());
+        assertEquals(OptionalLong.of(40), merged.quantile(0.5));
+        assertEquals(OptionalLong.of(20), merged.min());
+    }
+
+    @Test
+    void statistics_givenBuckets_splitsRangeEvenly() {
+        ValueStatistics statistics = sketch(20, 21, 30, 39, 40, 59).statistics(List.of(0.5), 4);
+
+        assertEquals(List.of(new ValueStatistics.Quantile(0.5, 30L)), statistics.quantiles());
+        assertEquals(List.of(
+                new ValueStatistics.Bucket(20L, 29L, 2L),
+                new ValueStatistics.Bucket(30L, 39L, 2L),
+                new ValueStatistics.Bucket(40L, 49L, 1L),
+                new ValueStatistics.Bucket(50L, 59L, 1L)), statistics.histogram());
+        assertEquals(209 / 6.0, statistics.mean());
+    }
+
+    private static ValueSketch sketch(int... values) {
+        ValueSketch.Builder builder = ValueSketch.empty().toBuilder();
+        for (int value : values) {
+            builder.add(value);
+        }
+        return builder.build();
+    }
+}
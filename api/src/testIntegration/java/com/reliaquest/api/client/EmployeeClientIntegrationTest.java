@@ -2,36 +2,96 @@ package com.reliaquest.api.client;
 
 import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import com.reliaquest.api.WiremockTest;
+import com.reliaquest.api.client.api.BulkItemResult;
 import com.reliaquest.api.client.api.DeleteEmployeeRequest;
+import com.reliaquest.api.client.api.EmployeeChange;
+import com.reliaquest.api.client.api.EmployeeChanges;
 import com.reliaquest.api.client.api.Response;
 import com.reliaquest.api.controller.api.CreateEmployeeRequest;
 import com.reliaquest.api.model.Employee;
+import feign.FeignException;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalLong;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 class EmployeeClientIntegrationTest extends WiremockTest {
 
     private static final String EMPLOYEE_ID = "4579bc4e-9850-422b-b249-d2284cb887fd";
 
+    @Autowired
+    private RosterReader rosterReader;
+
     @Test
-    void getAllEmployees_callsExternal_returnsAll() {
+    void getAllEmployees_callsExternal_returnsAll() throws IOException {
         stubFor(get(urlEqualTo(EMPLOYEE_ENDPOINT))
                 .willReturn(ok()
                         .withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
                         .withBodyFile("get-all-employees-response.json")));
 
-        List<Employee> allEmployees = employeeClient.getAll().data();
+        List<Employee> allEmployees = new ArrayList<>();
+        try (EmployeeStream employees = rosterReader.open()) {
+            employees.forEachRemaining(allEmployees::add);
+        }
 
         assertEquals(employees(), allEmployees);
     }
 
+    @Test
+    void getAllEmployees_givenServerError_throws() {
+        stubFor(get(urlEqualTo(EMPLOYEE_ENDPOINT))
+                .willReturn(serverError()));
+
+        assertThrows(FeignException.InternalServerError.class, () -> rosterReader.open());
+    }
+
+    @Test
+    void getAllEmployees_givenChangeSequence_exposesIt() throws IOException {
+        stubFor(get(urlEqualTo(EMPLOYEE_ENDPOINT))
+                .willReturn(ok()
+                        .withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .withHeader("X-Change-Sequence", "1718000000042")
+                        .withBodyFile("get-all-employees-response.json")));
+
+        try (EmployeeStream employees = rosterReader.open()) {
+            assertEquals(OptionalLong.of(1718000000042L), employees.changeSequence());
+        }
+    }
+
+    @Test
+    void getChanges_givenSequence_returnsLaterChanges() {
+        stubFor(get(urlPathEqualTo(EMPLOYEE_ENDPOINT + "/changes"))
+                .withQueryParam("since", equalTo("41"))
+                .willReturn(ok()
+                        .withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .withBody("""
+                                {"data": {"sequence": 42, "truncated": false,
+                                          "changes": [{"sequence": 42, "type": "DELETED",
+                                                       "employee": {"id": "2a273517-b3a2-4b70-b46f-63b727d6a866",
+                                                                    "employee_name": "Mrs. Eleanora Predovic",
+                                                                    "employee_salary": 278736,
+                                                                    "employee_age": 41,
+                                                                    "employee_title": "Advertising Representative",
+                                                                    "employee_email": "bitchin_blair@company.com"}}]},
+                                 "status": "Successfully processed request."}
+                                """)));
+
+        EmployeeChanges changes = employeeClient.getChanges(41).data();
+
+        assertEquals(new EmployeeChanges(42, false,
+                List.of(new EmployeeChange(42, EmployeeChange.Type.DELETED, employee()))), changes);
+    }
+
     @Test
     void getById_givenId_returnsEmployee() {
         stubFor(get(urlEqualTo(EMPLOYEE_ENDPOINT + "/" + EMPLOYEE_ID))
@@ -91,6 +151,66 @@ class EmployeeClientIntegrationTest extends WiremockTest {
         verify(2, postRequestedFor(urlEqualTo(EMPLOYEE_ENDPOINT)));
     }
 
+    @Test
+    void create_given429WithRetryAfter_retriesAndReturnsCreatedEmployee() throws IOException {
+        // what the upstream's token bucket sends, which Feign would otherwise decode as a RetryableException
+        stubFor(post(urlEqualTo(EMPLOYEE_ENDPOINT))
+                .inScenario("RetryAfter")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(status(429)
+                        .withHeader(RETRY_AFTER, "1")
+                        .withBody("Too many requests."))
+                .willSetStateTo("Retry"));
+
+        stubFor(post(urlEqualTo(EMPLOYEE_ENDPOINT))
+                .inScenario("RetryAfter")
+                .whenScenarioStateIs("Retry")
+                .willReturn(ok()
+                        .withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .withBodyFile("create-employee-response.json")));
+
+        Employee actual = employeeClient.create(createEmployeeRequest()).data();
+
+        assertEquals(createdEmployee(), actual);
+
+        verify(2, postRequestedFor(urlEqualTo(EMPLOYEE_ENDPOINT)));
+    }
+
+    @Test
+    void createAll_givenRequests_returnsResultPerItem() {
+        stubFor(post(urlEqualTo(EMPLOYEE_ENDPOINT + "/bulk"))
+                .withRequestBody(equalToJson("""
+                        [{"name": "John Doe", "salary": 500000, "age": 30, "title": "Software Engineer"},
+                         {"name": "", "salary": 500000, "age": 30, "title": "Software Engineer"}]
+                        """))
+                .willReturn(ok()
+                        .withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .withBody("""
+                                {"data": [{"index": 0, "status": "CREATED",
+                                           "data": {"id": "2dab2f20-1068-4f8e-b3d5-8fea02d65f18",
+                                                    "employee_name": "John Doe",
+                                                    "employee_salary": 500000,
+                                                    "employee_age": 30,
+                                                    "employee_title": "Software Engineer",
+                                                    "employee_email": "john_doe@company.com"}},
+                                          {"index": 1, "status": "INVALID", "error": "name must not be blank"}],
+                                 "status": "Successfully processed request."}
+                                """)));
+
+        CreateEmployeeRequest unnamed = CreateEmployeeRequest.builder()
+                .name("")
+                .age(30)
+                .salary(500000)
+                .title("Software Engineer")
+                .build();
+
+        List<BulkItemResult> results = employeeClient.createAll(List.of(createEmployeeRequest(), unnamed)).data();
+
+        assertEquals(List.of(
+                new BulkItemResult(0, BulkItemResult.Status.CREATED, createdEmployee(), null),
+                new BulkItemResult(1, BulkItemResult.Status.INVALID, null, "name must not be blank")), results);
+    }
+
     @Test
     void delete_givenDeleteRequest_returnsSuccess() throws IOException {
         stubFor(delete(urlEqualTo(EMPLOYEE_ENDPOINT))
@@ -6,36 +6,59 @@ import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import com.reliaquest.api.WiremockTest;
 import com.reliaquest.api.controller.api.CreateEmployeeRequest;
 import com.reliaquest.api.model.Employee;
+import com.reliaquest.api.service.CachedCalculationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpHeaders.VARY;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc
+@TestPropertySource(properties = "employee.response-cache.min-compress-size=0B")
 class EmployeeControllerEnd2EndTest extends WiremockTest {
 
+    private static final String TOP_TEN = "/employee/top-ten-highest-earning";
+    private static final String HIGHEST_SALARY = "/employee/highest-salary";
 
     @Autowired
     private MockMvc mvc;
     @Autowired
     private ObjectMapper objectMapper;
+    @SpyBean
+    private CachedCalculationService employeeService;
 
     @BeforeEach
     void setUp() throws IOException {
+        // the roster outlives the context, and one test here creates an employee
+        CachedCalculationService.invalidateCache();
+
         stubFor(get(urlEqualTo(EMPLOYEE_ENDPOINT))
                 .inScenario("end2end")
                 .whenScenarioStateIs(Scenario.STARTED)
@@ -102,6 +125,70 @@ class EmployeeControllerEnd2EndTest extends WiremockTest {
         }));
     }
 
+    @Test
+    void givenUnchangedRoster_whenEtagMatches_returnsNotModified() throws Exception {
+        String etag = mvc.perform(MockMvcRequestBuilders.get("/employee/highest-salary"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+
+        mvc.perform(MockMvcRequestBuilders.get("/employee/highest-salary").header(IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void givenUnchangedRoster_whenRequestedAgain_servesCachedResponseWithoutController() throws Exception {
+        String first = getResponse(MockMvcRequestBuilders.get(TOP_TEN));
+        String second = getResponse(MockMvcRequestBuilders.get(TOP_TEN));
+
+        assertEquals(first, second);
+        verify(employeeService, times(1)).getTopTenEmployees();
+    }
+
+    @Test
+    void givenCachedResponse_whenEmployeeCreated_rendersAgain() throws Exception {
+        MockHttpServletResponse before = perform(MockMvcRequestBuilders.get(HIGHEST_SALARY));
+
+        getResponse(MockMvcRequestBuilders.post("/employee/create")
+                .contentType(APPLICATION_JSON_VALUE)
+                .content(objectMapper.writeValueAsString(createEmployeeRequest())));
+        MockHttpServletResponse after = perform(MockMvcRequestBuilders.get(HIGHEST_SALARY)
+                .header(IF_NONE_MATCH, before.getHeader(ETAG)));
+
+        assertEquals(200, after.getStatus());
+        assertEquals(500000, objectMapper.readValue(after.getContentAsString(), Integer.class));
+        assertNotEquals(before.getHeader(ETAG), after.getHeader(ETAG));
+        verify(employeeService, times(2)).getHighestSalary();
+    }
+
+    @Test
+    void givenGzipAccepted_servesCompressedVariantWithItsOwnEtag() throws Exception {
+        MockHttpServletResponse identity = perform(MockMvcRequestBuilders.get(TOP_TEN));
+        MockHttpServletResponse gzipped = perform(MockMvcRequestBuilders.get(TOP_TEN)
+                .header(ACCEPT_ENCODING, "gzip, deflate"));
+
+        assertEquals("gzip", gzipped.getHeader(CONTENT_ENCODING));
+        assertThat(gzipped.getHeaders(VARY)).contains(ACCEPT_ENCODING);
+        assertThat(identity.getHeaders(VARY)).contains(ACCEPT_ENCODING);
+        assertNotEquals(identity.getHeader(ETAG), gzipped.getHeader(ETAG));
+        assertArrayEquals(identity.getContentAsByteArray(), gunzip(gzipped.getContentAsByteArray()));
+
+        mvc.perform(MockMvcRequestBuilders.get(TOP_TEN)
+                        .header(ACCEPT_ENCODING, "gzip")
+                        .header(IF_NONE_MATCH, gzipped.getHeader(ETAG)))
+                .andExpect(status().isNotModified());
+        verify(employeeService, times(1)).getTopTenEmployees();
+    }
+
+    @Test
+    void givenUnchangedRoster_whenWeakEtagMatches_returnsNotModified() throws Exception {
+        String etag = perform(MockMvcRequestBuilders.get(HIGHEST_SALARY)).getHeader(ETAG);
+
+        mvc.perform(MockMvcRequestBuilders.get(HIGHEST_SALARY).header(IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified());
+    }
+
     private List<String> topTenBefore() {
         return asList("Mrs. Vallie Wolff", "Chas Shields", "Mrs. Eleanora Predovic",
                 "Áki Ármannsson", "Julie Zieme Sr.", "Blythe Kuhic");
@@ -112,6 +199,19 @@ class EmployeeControllerEnd2EndTest extends WiremockTest {
                 "Áki Ármannsson", "Julie Zieme Sr.", "Blythe Kuhic");
     }
 
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
     private String getResponse(MockHttpServletRequestBuilder request) throws Exception {
         return mvc.perform(request)
                 .andExpect(status().isOk())
@@ -0,0 +1,38 @@
+package com.reliaquest.server.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Times generating large rosters on one thread and on all cores. The benchmark task's 4 GiB heap holds a few million
+ * employees, ten million needs its {@code maxHeapSize} raised.
+ */
+class MockEmployeeGeneratorBenchmark {
+
+    private static final List<Integer> COUNTS = List.of(1_000_000, 2_000_000);
+
+    @Test
+    void generate_comparesSequentialAndParallel() {
+        // warms up Faker's data files and the JIT, so the first timed run isn't penalized
+        new MockEmployeeGenerator(Locale.US, 1L, true).generate(50_000);
+
+        for (final var count : COUNTS) {
+            for (final var parallel : List.of(false, true)) {
+                final var start = System.nanoTime();
+                final var employees = new MockEmployeeGenerator(Locale.US, 42L, parallel).generate(count);
+                final var elapsed = Duration.ofNanos(System.nanoTime() - start);
+                System.out.printf(
+                        "%,10d employees %-10s %6d ms = %,8.0f/s%n",
+                        count,
+                        parallel ? "parallel" : "sequential",
+                        elapsed.toMillis(),
+                        count * 1e9 / elapsed.toNanos());
+                assertThat(employees).hasSize(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.reliaquest.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.reliaquest.server.model.EmployeeChange;
+import com.reliaquest.server.model.MockEmployee;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Measures durable writes per second through {@link EmployeeJournal} from one writer and from many, where concurrent
+ * writers share fsyncs, and how long a restart takes to replay the result.
+ */
+class EmployeeJournalBenchmark {
+
+    private static final int SEEDED = 1_000;
+    private static final int WRITES_PER_WRITER = 2_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_comparesWriterCounts() throws Exception {
+        for (final var writers : List.of(1, 4, 32)) {
+            final var runDirectory = Files.createDirectory(directory.resolve("writers-" + writers));
+            final var journal = new EmployeeJournal(runDirectory, Duration.ofHours(1));
+            journal.seed(employees(SEEDED));
+
+            final var writes = writers * WRITES_PER_WRITER;
+            final var elapsed = write(journal, writers);
+            System.out.printf(
+                    "%2d writer(s): %6d durable writes in %5d ms = %6.0f/s%n",
+                    writers, writes, elapsed.toMillis(), writes * 1e9 / elapsed.toNanos());
+            journal.close();
+
+            final var restarted = new EmployeeJournal(runDirectory, Duration.ofHours(1));
+            final var start = System.nanoTime();
+            final var recovered = restarted.recover().orElseThrow();
+            System.out.printf(
+                    "%2d writer(s): replayed %d employees in %d ms%n",
+                    writers, recovered.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+            assertThat(recovered).hasSize(SEEDED + writes);
+            restarted.close();
+        }
+    }
+
+    /*
+     * Appends under a shared lock, as MockEmployeeService does, and syncs after releasing it.
+     */
+    private static Duration write(EmployeeJournal journal, int writers) throws Exception {
+        final var lock = new Object();
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            tasks.add(() -> {
+                for (final var employee : employees(WRITES_PER_WRITER)) {
+                    final long position;
+                    synchronized (lock) {
+                        position = journal.append(EmployeeChange.Type.CREATED, employee);
+                    }
+                    journal.sync(position);
+                }
+                return null;
+            });
+        }
+
+        final var pool = Executors.newFixedThreadPool(writers);
+        try {
+            final var start = System.nanoTime();
+            for (final var result : pool.invokeAll(tasks)) {
+                result.get();
+            }
+            return Duration.ofNanos(System.nanoTime() - start);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<MockEmployee> employees(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> MockEmployee.builder()
+                        .id(UUID.randomUUID())
+                        .name("Employee " + i)
+                        .salary(30_000 + i)
+                        .age(16 + i % 60)
+                        .title("Title " + i % 500)
+                        .email("employee" + i + "@company.com")
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,87 @@
+package com.reliaquest.server.config;
+
+import com.reliaquest.server.model.MockEmployee;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import net.datafaker.Faker;
+
+/**
+ * Generates the mock roster in fixed-size chunks, each from its own {@link Faker} seeded with the run's seed and the
+ * chunk's index. Chunks share nothing, so they can be generated on all cores, and a given seed yields the same
+ * roster in the same order whether or not they are.
+ */
+@Slf4j
+class MockEmployeeGenerator {
+
+    /*
+     * Part of what a seed means, changing it changes every generated roster.
+     */
+    private static final int CHUNK_SIZE = 10_000;
+
+    private final Locale locale;
+    private final long seed;
+    private final boolean parallel;
+
+    MockEmployeeGenerator(Locale locale, long seed, boolean parallel) {
+        this.locale = locale;
+        this.seed = seed;
+        this.parallel = parallel;
+    }
+
+    List<MockEmployee> generate(int count) {
+        final var start = System.nanoTime();
+        final var chunks = IntStream.range(0, (count + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        final var mockEmployees = (parallel ? chunks.parallel() : chunks)
+                .mapToObj(chunk -> chunk(chunk, Math.min(CHUNK_SIZE, count - chunk * CHUNK_SIZE)))
+                .flatMap(List::stream)
+                .collect(ArrayList<MockEmployee>::new, ArrayList::add, ArrayList::addAll);
+
+        log.info(
+                "Generated {} employees in {} ms on {} thread(s) with seed {}, heap in use {} MiB",
+                mockEmployees.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                parallel ? ForkJoinPool.getCommonPoolParallelism() : 1,
+                seed,
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20);
+        return mockEmployees;
+    }
+
+    private List<MockEmployee> chunk(int chunk, int size) {
+        final var random = new Random(seed ^ chunk * 0x9E3779B97F4A7C15L);
+        final var faker = new Faker(locale, random);
+        final List<MockEmployee> mockEmployees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final var mockEmployee = MockEmployee.builder()
+                    .id(uuid(random))
+                    .name(faker.name().fullName())
+                    .salary(faker.number().numberBetween(30000, 500000))
+                    .age(faker.number().numberBetween(16, 70))
+                    .title(faker.job().title())
+                    .email(ServerConfiguration.EMAIL_TEMPLATE.formatted(
+                            faker.twitter().userName().toLowerCase()))
+                    .build();
+            if (!parallel) {
+                log.debug("Created employee: {}", mockEmployee);
+            }
+            mockEmployees.add(mockEmployee);
+        }
+        return mockEmployees;
+    }
+
+    /*
+     * A version 4 UUID drawn from the chunk's random, so ids are reproducible too.
+     */
+    private static UUID uuid(Random random) {
+        final var mostSignificant = random.nextLong() & ~0xF000L | 0x4000L;
+        final var leastSignificant = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -1,59 +1,90 @@
 package com.reliaquest.server.config;
 
-import com.reliaquest.server.model.MockEmployee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.server.controller.MockEmployeeController;
+import com.reliaquest.server.service.EmployeeJournal;
+import com.reliaquest.server.service.MockEmployeeStore;
+import com.reliaquest.server.web.FaultInjectionFilter;
+import com.reliaquest.server.web.FaultInjectionProperties;
 import com.reliaquest.server.web.RandomRequestLimitInterceptor;
-import java.util.ArrayList;
-import java.util.List;
+import com.reliaquest.server.web.RateLimitProperties;
+import com.reliaquest.server.web.TokenBucketRateLimitInterceptor;
+import java.io.IOException;
 import java.util.Locale;
-import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.datafaker.Faker;
-import net.datafaker.transformations.Field;
-import net.datafaker.transformations.JavaObjectTransformer;
-import net.datafaker.transformations.Schema;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Slf4j
 @Configuration
+@EnableConfigurationProperties({RateLimitProperties.class, FaultInjectionProperties.class})
+@RequiredArgsConstructor
 public class ServerConfiguration implements WebMvcConfigurer {
 
     public static final String EMAIL_TEMPLATE = "%s@company.com";
 
+    private final RateLimitProperties rateLimitProperties;
+
     @Bean
     public Faker faker() {
         return new Faker(Locale.getDefault());
     }
 
-    /*
-     * This list is modifiable by design for CRUD operations.
-     */
     @Bean
-    public List<MockEmployee> mockEmployees(Faker faker, @Value("${mock.employees.max:20}") int maxEmployees) {
-        final var transformer = new JavaObjectTransformer();
-        final var schema = Schema.of(
-                Field.field("id", UUID::randomUUID),
-                Field.field("name", () -> faker.name().fullName()),
-                Field.field("salary", () -> faker.number().numberBetween(30000, 500000)),
-                Field.field("age", () -> faker.number().numberBetween(16, 70)),
-                Field.field("title", () -> faker.job().title()),
-                Field.field(
-                        "email",
-                        () -> EMAIL_TEMPLATE.formatted(
-                                faker.twitter().userName().toLowerCase())));
-        return IntStream.rangeClosed(1, maxEmployees)
-                .mapToObj(ignored -> (MockEmployee) transformer.apply(MockEmployee.class, schema))
-                .peek(mockEmployee -> log.debug("Created employee: {}", mockEmployee))
-                .collect(Collectors.toCollection(ArrayList::new));
+    public MockEmployeeStore mockEmployeeStore(
+            @Value("${mock.employees.max:20}") int maxEmployees,
+            @Value("${mock.employees.seed:#{null}}") Long seed,
+            @Value("${mock.employees.parallel:false}") boolean parallel,
+            Optional<EmployeeJournal> journal)
+            throws IOException {
+        if (journal.isPresent()) {
+            final var recovered = journal.get().recover();
+            if (recovered.isPresent()) {
+                log.info("Recovered {} employees from the journal", recovered.get().size());
+                return new MockEmployeeStore(recovered.get());
+            }
+        }
+
+        // without a configured seed every start differs, the logged seed replays one
+        final var mockEmployees = new MockEmployeeGenerator(
+                        Locale.getDefault(), seed != null ? seed : new Random().nextLong(), parallel)
+                .generate(maxEmployees);
+        if (journal.isPresent()) {
+            journal.get().seed(mockEmployees);
+        }
+        return new MockEmployeeStore(mockEmployees);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "mock.faults.enabled", havingValue = "true")
+    public FaultInjectionFilter faultInjectionFilter(
+            FaultInjectionProperties faultInjectionProperties, ObjectMapper objectMapper) {
+        // like the request limit, faults would only break a subscription that is meant to stay open
+        return new FaultInjectionFilter(
+                faultInjectionProperties, objectMapper, Set.of(MockEmployeeController.EVENTS_PATH));
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new RandomRequestLimitInterceptor());
+        // a subscription is one long-lived request, and it is what spares clients from polling
+        registry.addInterceptor(requestLimitInterceptor()).excludePathPatterns(MockEmployeeController.EVENTS_PATH);
+    }
+
+    private HandlerInterceptor requestLimitInterceptor() {
+        return switch (rateLimitProperties.mode()) {
+            case RANDOM -> new RandomRequestLimitInterceptor();
+            case TOKEN_BUCKET -> new TokenBucketRateLimitInterceptor(rateLimitProperties);
+        };
     }
 }
@@ -1,34 +1,68 @@
 package com.reliaquest.server.controller;
 
+import com.reliaquest.server.model.BulkDeleteMockEmployeeInput;
+import com.reliaquest.server.model.BulkItemResult;
 import com.reliaquest.server.model.CreateMockEmployeeInput;
 import com.reliaquest.server.model.DeleteMockEmployeeInput;
+import com.reliaquest.server.model.EmployeeChanges;
 import com.reliaquest.server.model.MockEmployee;
 import com.reliaquest.server.model.Response;
+import com.reliaquest.server.service.ChangeBroadcaster;
 import com.reliaquest.server.service.MockEmployeeService;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/v1/employee")
 @RequiredArgsConstructor
 public class MockEmployeeController {
 
+    public static final String CHANGE_SEQUENCE_HEADER = "X-Change-Sequence";
+    public static final String EVENTS_PATH = "/api/v1/employee/events";
+    public static final int MAX_BULK_ITEMS = 1000;
+
     private final MockEmployeeService mockEmployeeService;
 
+    private final ChangeBroadcaster changeBroadcaster;
+
     @GetMapping()
-    public Response<List<MockEmployee>> getEmployees() {
-        return Response.handledWith(mockEmployeeService.getMockEmployees());
+    public ResponseEntity<Response<List<MockEmployee>>> getEmployees() {
+        final var sequence = mockEmployeeService.getChangeSequence();
+        return ResponseEntity.ok()
+                .header(CHANGE_SEQUENCE_HEADER, String.valueOf(sequence))
+                .body(Response.handledWith(mockEmployeeService.getMockEmployees()));
+    }
+
+    @GetMapping("/changes")
+    public Response<EmployeeChanges> getChanges(@RequestParam("since") long since) {
+        return Response.handledWith(mockEmployeeService.getChanges(since));
+    }
+
+    /*
+     * Resumes after Last-Event-ID when reconnecting, after the since parameter when given, or else from now on.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEvents(
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(name = "since", required = false) Long since) {
+        final var resumeAfter = lastEventId != null ? lastEventId : since;
+        return changeBroadcaster.subscribe(
+                resumeAfter != null ? resumeAfter : mockEmployeeService.getChangeSequence());
     }
 
     @GetMapping("/{id}")
@@ -48,4 +82,29 @@ public class MockEmployeeController {
     public Response<Boolean> deleteEmployee(@Valid @RequestBody DeleteMockEmployeeInput input) {
         return Response.handledWith(mockEmployeeService.delete(input));
     }
+
+    /*
+     * Items are validated one by one, an invalid item is reported in its result rather than failing the request.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Response<List<BulkItemResult<MockEmployee>>>> createEmployees(
+            @RequestBody List<CreateMockEmployeeInput> inputs) {
+        if (inputs.size() > MAX_BULK_ITEMS) {
+            return tooManyItems();
+        }
+        return ResponseEntity.ok(Response.handledWith(mockEmployeeService.createAll(inputs)));
+    }
+
+    @DeleteMapping("/bulk")
+    public ResponseEntity<Response<List<BulkItemResult<MockEmployee>>>> deleteEmployees(
+            @RequestBody List<BulkDeleteMockEmployeeInput> inputs) {
+        if (inputs.size() > MAX_BULK_ITEMS) {
+            return tooManyItems();
+        }
+        return ResponseEntity.ok(Response.handledWith(mockEmployeeService.deleteAll(inputs)));
+    }
+
+    private static <T> ResponseEntity<Response<T>> tooManyItems() {
+        return ResponseEntity.badRequest().body(Response.error("At most " + MAX_BULK_ITEMS + " items per request"));
+    }
 }
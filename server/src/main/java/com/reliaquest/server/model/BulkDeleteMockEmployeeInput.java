@@ -0,0 +1,15 @@
+package com.reliaquest.server.model;
+
+import java.util.UUID;
+import lombok.Data;
+
+/*
+ * One of id or name is required, an id wins when both are given.
+ */
+@Data
+public class BulkDeleteMockEmployeeInput {
+
+    private UUID id;
+
+    private String name;
+}
@@ -0,0 +1,29 @@
+package com.reliaquest.server.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/*
+ * Outcome for the item at index in a bulk request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult<T>(int index, Status status, T data, String error) {
+
+    public static <T> BulkItemResult<T> of(int index, Status status, T data) {
+        return new BulkItemResult<>(index, status, data, null);
+    }
+
+    public static <T> BulkItemResult<T> notFound(int index) {
+        return new BulkItemResult<>(index, Status.NOT_FOUND, null, null);
+    }
+
+    public static <T> BulkItemResult<T> invalid(int index, String error) {
+        return new BulkItemResult<>(index, Status.INVALID, null, error);
+    }
+
+    public enum Status {
+        CREATED,
+        DELETED,
+        NOT_FOUND,
+        INVALID
+    }
+}
@@ -0,0 +1,12 @@
+package com.reliaquest.server.model;
+
+import java.util.List;
+
+/**
+ * Changes after a given sequence, oldest first.
+ *
+ * @param sequence latest sequence, to ask for the changes after this batch
+ * @param truncated whether the log no longer reaches back to the requested sequence, in which case the roster has to
+ *     be read again in full
+ */
+public record EmployeeChanges(long sequence, boolean truncated, List<EmployeeChange> changes) {}
@@ -0,0 +1,165 @@
+package com.reliaquest.server.service;
+
+import com.reliaquest.server.model.EmployeeChange;
+import com.reliaquest.server.model.EmployeeChanges;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes roster changes to server-sent event subscribers. Every event carries its sequence as id, so a client that
+ * reconnects with {@code Last-Event-ID} picks up right after the last event it saw.
+ */
+@Slf4j
+@Component
+public class ChangeBroadcaster {
+
+    public static final String RESET_EVENT = "reset";
+    public static final String HEARTBEAT_EVENT = "heartbeat";
+
+    private final ChangeLog changeLog;
+    private final Duration heartbeatInterval;
+    private final int maxQueuedEvents;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final var thread = new Thread(runnable, "change-heartbeats");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ChangeBroadcaster(
+            ChangeLog changeLog,
+            @Value("${mock.changes.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+            @Value("${mock.changes.max-queued-events:1000}") int maxQueuedEvents) {
+        this.changeLog = changeLog;
+        this.heartbeatInterval = heartbeatInterval;
+        this.maxQueuedEvents = maxQueuedEvents;
+    }
+
+    /**
+     * Opens a stream of the changes after {@code since}. When the log no longer reaches back that far the stream
+     * starts with a {@value #RESET_EVENT} event instead, telling the client to read the whole roster again. A
+     * subscriber that falls more than {@code mock.changes.max-queued-events} sends behind is dropped, and catches up
+     * when it reconnects.
+     */
+    public SseEmitter subscribe(long since) {
+        // never times out, the client decides when it's done
+        final var emitter = new SseEmitter(0L);
+        final var subscription = new Subscription(emitter);
+        emitter.onCompletion(subscription::unsubscribe);
+        emitter.onTimeout(subscription::unsubscribe);
+        emitter.onError(error -> subscription.unsubscribe());
+
+        changeLog.subscribe(since, subscription.subscriber);
+        return emitter;
+    }
+
+    /**
+     * One subscriber's sender, a single thread so a slow client holds up neither the writers nor the other
+     * subscribers, with a bounded queue so it can't hold on to changes without limit either.
+     */
+    private class Subscription {
+
+        private final SseEmitter emitter;
+        private final ExecutorService sender;
+        private final Consumer<EmployeeChanges> subscriber;
+        private final ScheduledFuture<?> heartbeat;
+
+        Subscription(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.sender = new ThreadPoolExecutor(
+                    1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(maxQueuedEvents), runnable -> {
+                        final var thread = new Thread(runnable, "change-subscriber");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.subscriber = changes -> submit(() -> send(emitter, changes));
+            this.heartbeat = heartbeats.scheduleWithFixedDelay(
+                    () -> {
+                        // read before queueing, so every change up to it is queued ahead of the heartbeat
+                        final var sequence = changeLog.sequence();
+                        submit(() -> heartbeat(emitter, sequence));
+                    },
+                    heartbeatInterval.toMillis(),
+                    heartbeatInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+
+        void unsubscribe() {
+            changeLog.unsubscribe(subscriber);
+            heartbeat.cancel(false);
+            sender.shutdownNow();
+        }
+
+        private void submit(Runnable task) {
+            try {
+                sender.execute(task);
+            } catch (RejectedExecutionException e) {
+                // a shut down sender means unsubscribed in the meantime, a full one a client that stopped reading
+                if (!sender.isShutdown()) {
+                    drop();
+                }
+            }
+        }
+
+        private void drop() {
+            log.debug("Dropping change subscriber that fell {} sends behind", maxQueuedEvents);
+            unsubscribe();
+            // this may run while the change log is locked, and completing waits for a write in progress, which a
+            // stalled client can hold up for as long as its connection lives
+            final var closer = new Thread(emitter::complete, "change-subscriber-drop");
+            closer.setDaemon(true);
+            closer.start();
+        }
+    }
+
+    private static void send(SseEmitter emitter, EmployeeChanges changes) {
+        try {
+            if (changes.truncated()) {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(changes.sequence()))
+                        .name(RESET_EVENT)
+                        .data(changes.sequence()));
+                return;
+            }
+            for (EmployeeChange change : changes.changes()) {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(change.sequence()))
+                        .name(change.type().name().toLowerCase())
+                        .data(change.employee()));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping change subscriber: {}", e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    /*
+     * Tells the client nothing changed up to the current sequence. Sending it is also how a client that went away
+     * without closing the connection is noticed.
+     */
+    private static void heartbeat(SseEmitter emitter, long sequence) {
+        try {
+            emitter.send(SseEmitter.event().name(HEARTBEAT_EVENT).data(sequence));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+    }
+}
@@ -0,0 +1,77 @@
+package com.reliaquest.server.service;
+
+import com.reliaquest.server.model.EmployeeChange;
+import com.reliaquest.server.model.EmployeeChanges;
+import com.reliaquest.server.model.MockEmployee;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sequenced log of roster changes, keeping the most recent ones so clients can catch up without reading the whole
+ * roster again.
+ */
+@Component
+public class ChangeLog {
+
+    private final int retention;
+    private final Deque<EmployeeChange> changes = new ArrayDeque<>();
+    private final List<Consumer<EmployeeChanges>> subscribers = new CopyOnWriteArrayList<>();
+
+    private long sequence;
+    /*
+     * Every change after this sequence is still in the log.
+     */
+    private long floor;
+
+    public ChangeLog(@Value("${mock.changes.retention:10000}") int retention) {
+        this.retention = retention;
+        // starting from the clock keeps a restarted server from reusing sequences a client has already seen
+        this.sequence = System.currentTimeMillis();
+        this.floor = sequence;
+    }
+
+    public synchronized EmployeeChange append(@NonNull EmployeeChange.Type type, @NonNull MockEmployee employee) {
+        final var change = new EmployeeChange(++sequence, type, employee);
+        changes.addLast(change);
+        if (changes.size() > retention) {
+            floor = changes.removeFirst().sequence();
+        }
+        final var published = new EmployeeChanges(change.sequence(), false, List.of(change));
+        subscribers.forEach(subscriber -> subscriber.accept(published));
+        return change;
+    }
+
+    /**
+     * Hands {@code subscriber} the changes after {@code since} and then every later one as it is appended, with
+     * nothing missed or repeated in between. It is called while the log is locked, so it must not block.
+     */
+    public synchronized void subscribe(long since, @NonNull Consumer<EmployeeChanges> subscriber) {
+        subscriber.accept(since(since));
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(@NonNull Consumer<EmployeeChanges> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public synchronized long sequence() {
+        return sequence;
+    }
+
+    public synchronized EmployeeChanges since(long since) {
+        if (since < floor || since > sequence) {
+            return new EmployeeChanges(sequence, true, List.of());
+        }
+
+        final List<EmployeeChange> after = changes.stream()
+                .dropWhile(change -> change.sequence() <= since)
+                .toList();
+        return new EmployeeChanges(sequence, false, after);
+    }
+}
@@ -0,0 +1,431 @@
+package com.reliaquest.server.service;
+
+import com.reliaquest.server.model.EmployeeChange;
+import com.reliaquest.server.model.MockEmployee;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only log of creates and deletes, so a restarted server comes back with the roster it had instead of a new
+ * random one. Records go to numbered segments and are made durable in batches: whoever finds no flush in progress
+ * writes and fsyncs everything appended so far, and the writers that queued up meanwhile share that one fsync.
+ *
+ * <p>Every so often the active segment is closed and folded, together with the last snapshot, into a new snapshot,
+ * after which the older files are deleted. {@code snapshot-N} holds the roster as it was before {@code journal-N}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "mock.journal.directory")
+public class EmployeeJournal {
+
+    private static final Pattern FILE_NAME = Pattern.compile("(snapshot|journal)-(\\d+)\\.(bin|log)");
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    private final Path directory;
+    private final ScheduledExecutorService compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final var thread = new Thread(runnable, "journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private FileChannel segment;
+    private long generation;
+    private long snapshotGeneration;
+    private int segmentRecords;
+
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appended;
+    private long durable;
+    private boolean flushing;
+    /*
+     * Set once a write fails. Nothing appended after the failed batch could be trusted to be durable, so from then
+     * on every sync fails.
+     */
+    private IOException broken;
+
+    public EmployeeJournal(
+            @Value("${mock.journal.directory}") Path directory,
+            @Value("${mock.journal.snapshot-interval:PT5M}") Duration snapshotInterval)
+            throws IOException {
+        this.directory = Files.createDirectories(directory);
+        final var files = files();
+        this.snapshotGeneration = files.getOrDefault("snapshot", new TreeMap<>()).isEmpty()
+                ? 0
+                : files.get("snapshot").lastKey();
+        // always start a fresh segment, so a torn tail left by a crash is never appended to
+        this.generation = files.values().stream()
+                        .flatMap(generations -> generations.keySet().stream())
+                        .max(Long::compare)
+                        .orElse(0L)
+                + 1;
+        this.segment = open(generation);
+        compactor.scheduleWithFixedDelay(
+                this::compact, snapshotInterval.toMillis(), snapshotInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The roster left by earlier runs, or empty on the first start.
+     */
+    public synchronized Optional<List<MockEmployee>> recover() throws IOException {
+        // the generated roster is always seeded before anything is appended
+        if (snapshotGeneration == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(List.copyOf(fold(generation).values()));
+    }
+
+    /**
+     * Records the generated roster as the starting point, before anything is appended.
+     */
+    public synchronized void seed(@NonNull Collection<MockEmployee> employees) throws IOException {
+        writeSnapshot(generation, employees);
+        snapshotGeneration = generation;
+    }
+
+    /**
+     * Queues a change and returns its position, to be passed to {@link #sync(long)} once the caller no longer holds
+     * any lock other writers need.
+     */
+    public synchronized long append(@NonNull EmployeeChange.Type type, @NonNull MockEmployee employee) {
+        final var payload = new ByteArrayOutputStream();
+        try (final var out = new DataOutputStream(payload)) {
+            out.writeByte(type.ordinal());
+            out.writeLong(employee.getId().getMostSignificantBits());
+            out.writeLong(employee.getId().getLeastSignificantBits());
+            if (type == EmployeeChange.Type.CREATED) {
+                writeEmployee(out, employee);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final var bytes = payload.toByteArray();
+        final var crc = new CRC32();
+        crc.update(bytes);
+        final var frame = ByteBuffer.allocate(8 + bytes.length)
+                .putInt(bytes.length)
+                .putInt((int) crc.getValue())
+                .put(bytes);
+        pending.writeBytes(frame.array());
+        segmentRecords++;
+        return ++appended;
+    }
+
+    /**
+     * Returns once the change at {@code position} is on disk.
+     */
+    public void sync(long position) {
+        final byte[] batch;
+        final long batchEnd;
+        final FileChannel channel;
+        synchronized (this) {
+            while (flushing && durable < position) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for the journal", e);
+                }
+            }
+            if (durable >= position) {
+                return;
+            }
+            if (broken != null) {
+                throw new UncheckedIOException("Journal write failed earlier", broken);
+            }
+            flushing = true;
+            batch = pending.toByteArray();
+            pending = new ByteArrayOutputStream();
+            batchEnd = appended;
+            channel = segment;
+        }
+
+        IOException failure = null;
+        try {
+            write(channel, batch);
+        } catch (IOException e) {
+            failure = e;
+        }
+        synchronized (this) {
+            flushing = false;
+            if (failure == null) {
+                durable = batchEnd;
+            } else {
+                broken = failure;
+            }
+            notifyAll();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        compactor.shutdownNow();
+        awaitFlush();
+        write(segment, pending.toByteArray());
+        pending = new ByteArrayOutputStream();
+        durable = appended;
+        segment.close();
+    }
+
+    /**
+     * Closes the active segment and folds it into a new snapshot. Runs every snapshot interval.
+     */
+    void compact() {
+        final long closed;
+        synchronized (this) {
+            if (segmentRecords == 0 && snapshotGeneration == generation) {
+                return;
+            }
+            try {
+                closed = rotate();
+            } catch (IOException e) {
+                log.warn("Rotating the journal failed: {}", e.getMessage());
+                return;
+            }
+        }
+
+        try {
+            final var start = System.nanoTime();
+            final var employees = fold(closed + 1);
+            writeSnapshot(closed + 1, employees.values());
+            synchronized (this) {
+                snapshotGeneration = Math.max(snapshotGeneration, closed + 1);
+            }
+            for (final var generations : files().values()) {
+                for (final var file : generations.headMap(closed + 1).values()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            log.debug(
+                    "Compacted the journal into {} employees in {} ms",
+                    employees.size(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Compacting the journal failed: {}", e.getMessage());
+        }
+    }
+
+    /*
+     * Flushes and closes the active segment and opens the next one. Returns the generation that was closed.
+     */
+    private long rotate() throws IOException {
+        awaitFlush();
+        write(segment, pending.toByteArray());
+        pending = new ByteArrayOutputStream();
+        durable = appended;
+        segment.close();
+
+        final var closed = generation;
+        segment = open(++generation);
+        segmentRecords = 0;
+        notifyAll();
+        return closed;
+    }
+
+    private void awaitFlush() {
+        while (flushing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the journal", e);
+            }
+        }
+    }
+
+    /*
+     * The roster as it was before segment {@code until}: the latest snapshot below it with the segments after that
+     * snapshot replayed on top.
+     */
+    private Map<UUID, MockEmployee> fold(long until) throws IOException {
+        final var files = files();
+        final var employees = new LinkedHashMap<UUID, MockEmployee>();
+        final var snapshot = files.getOrDefault("snapshot", new TreeMap<>()).floorEntry(until);
+        final long from = snapshot == null ? 0 : snapshot.getKey();
+        if (snapshot != null) {
+            replay(snapshot.getValue(), employees);
+        }
+        for (final var journal : files.getOrDefault("journal", new TreeMap<>())
+                .subMap(from, true, until, false)
+                .values()) {
+            replay(journal, employees);
+        }
+        return employees;
+    }
+
+    private static void replay(Path file, Map<UUID, MockEmployee> employees) throws IOException {
+        try (final var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            final var crc = new CRC32();
+            while (true) {
+                final int length;
+                final int checksum;
+                final byte[] payload;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < 0 || length > MAX_RECORD_LENGTH) {
+                        throw new EOFException();
+                    }
+                    payload = in.readNBytes(length);
+                } catch (EOFException e) {
+                    // clean end of file, or a record cut short by a crash
+                    return;
+                }
+                crc.reset();
+                crc.update(payload);
+                if (payload.length < length || (int) crc.getValue() != checksum) {
+                    log.warn("Ignoring torn record at the end of {}", file.getFileName());
+                    return;
+                }
+                apply(new DataInputStream(new ByteArrayInputStream(payload)), employees);
+            }
+        }
+    }
+
+    private static void apply(DataInputStream record, Map<UUID, MockEmployee> employees) throws IOException {
+        final var type = EmployeeChange.Type.values()[record.readByte()];
+        final var id = new UUID(record.readLong(), record.readLong());
+        if (type == EmployeeChange.Type.CREATED) {
+            employees.put(
+                    id,
+                    MockEmployee.builder()
+                            .id(id)
+                            .name(readString(record))
+                            .salary(readInteger(record))
+                            .age(readInteger(record))
+                            .title(readString(record))
+                            .email(readString(record))
+                            .build());
+        } else {
+            employees.remove(id);
+        }
+    }
+
+    private void writeSnapshot(long snapshotGeneration, Collection<MockEmployee> employees) throws IOException {
+        final var path = directory.resolve("snapshot-%d.bin".formatted(snapshotGeneration));
+        final var partial = path.resolveSibling(path.getFileName() + ".partial");
+        try (final var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16))) {
+            final var payload = new ByteArrayOutputStream();
+            final var crc = new CRC32();
+            for (final var employee : employees) {
+                payload.reset();
+                final var record = new DataOutputStream(payload);
+                record.writeByte(EmployeeChange.Type.CREATED.ordinal());
+                record.writeLong(employee.getId().getMostSignificantBits());
+                record.writeLong(employee.getId().getLeastSignificantBits());
+                writeEmployee(record, employee);
+                crc.reset();
+                crc.update(payload.toByteArray());
+                out.writeInt(payload.size());
+                out.writeInt((int) crc.getValue());
+                payload.writeTo(out);
+            }
+        }
+        try (final var channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(partial, path, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private FileChannel open(long segmentGeneration) throws IOException {
+        return FileChannel.open(
+                directory.resolve("journal-%d.log".formatted(segmentGeneration)),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private static void write(FileChannel channel, byte[] batch) throws IOException {
+        if (batch.length == 0) {
+            return;
+        }
+        final var buffer = ByteBuffer.wrap(batch);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /*
+     * Snapshots and segments by kind and generation.
+     */
+    private Map<String, TreeMap<Long, Path>> files() throws IOException {
+        final Map<String, TreeMap<Long, Path>> files = new LinkedHashMap<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                final var matcher = FILE_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    files.computeIfAbsent(matcher.group(1), ignored -> new TreeMap<>())
+                            .put(Long.parseLong(matcher.group(2)), path);
+                }
+            });
+        }
+        return files;
+    }
+
+    private static void writeEmployee(DataOutputStream out, MockEmployee employee) throws IOException {
+        writeString(out, employee.getName());
+        writeInteger(out, employee.getSalary());
+        writeInteger(out, employee.getAge());
+        writeString(out, employee.getTitle());
+        writeString(out, employee.getEmail());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+}
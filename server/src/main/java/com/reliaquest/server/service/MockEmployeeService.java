@@ -1,14 +1,21 @@
 package com.reliaquest.server.service;
 
 import com.reliaquest.server.config.ServerConfiguration;
+import com.reliaquest.server.model.BulkDeleteMockEmployeeInput;
+import com.reliaquest.server.model.BulkItemResult;
 import com.reliaquest.server.model.CreateMockEmployeeInput;
 import com.reliaquest.server.model.DeleteMockEmployeeInput;
+import com.reliaquest.server.model.EmployeeChange;
+import com.reliaquest.server.model.EmployeeChanges;
 import com.reliaquest.server.model.MockEmployee;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import lombok.Getter;
+import java.util.stream.Collectors;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,37 +29,159 @@ public class MockEmployeeService {
 
     private final Faker faker;
 
-    @Getter
-    private final List<MockEmployee> mockEmployees;
+    private final ChangeLog changeLog;
+
+    private final Optional<EmployeeJournal> journal;
+
+    private final Validator validator;
+
+    private final MockEmployeeStore mockEmployeeStore;
+
+    public List<MockEmployee> getMockEmployees() {
+        return mockEmployeeStore.getAll();
+    }
 
     public Optional<MockEmployee> findById(@NonNull UUID uuid) {
-        return mockEmployees.stream()
-                .filter(mockEmployee -> Objects.nonNull(mockEmployee.getId())
-                        && mockEmployee.getId().equals(uuid))
-                .findFirst();
+        return mockEmployeeStore.findById(uuid);
+    }
+
+    /*
+     * Read before the roster, so changes made while it is being read are replayed rather than missed.
+     */
+    public long getChangeSequence() {
+        return changeLog.sequence();
+    }
+
+    public EmployeeChanges getChanges(long since) {
+        return changeLog.since(since);
     }
 
     public MockEmployee create(@NonNull CreateMockEmployeeInput input) {
-        final var mockEmployee = MockEmployee.from(
-                ServerConfiguration.EMAIL_TEMPLATE.formatted(
-                        faker.twitter().userName().toLowerCase()),
-                input);
-        mockEmployees.add(mockEmployee);
+        final MockEmployee mockEmployee;
+        final long position;
+        synchronized (this) {
+            mockEmployee = MockEmployee.from(
+                    ServerConfiguration.EMAIL_TEMPLATE.formatted(
+                            faker.twitter().userName().toLowerCase()),
+                    input);
+            mockEmployeeStore.add(mockEmployee);
+            changeLog.append(EmployeeChange.Type.CREATED, mockEmployee);
+            position = record(EmployeeChange.Type.CREATED, mockEmployee);
+        }
         log.debug("Added employee: {}", mockEmployee);
+        awaitDurable(position);
         return mockEmployee;
     }
 
     public boolean delete(@NonNull DeleteMockEmployeeInput input) {
-        final var mockEmployee = mockEmployees.stream()
-                .filter(employee -> Objects.nonNull(employee.getName())
-                        && employee.getName().equalsIgnoreCase(input.getName()))
-                .findFirst();
-        if (mockEmployee.isPresent()) {
-            mockEmployees.remove(mockEmployee.get());
-            log.debug("Removed employee: {}", mockEmployee.get());
-            return true;
+        final Optional<MockEmployee> mockEmployee;
+        final long position;
+        synchronized (this) {
+            mockEmployee = mockEmployeeStore.removeByName(input.getName());
+            if (mockEmployee.isEmpty()) {
+                return false;
+            }
+            changeLog.append(EmployeeChange.Type.DELETED, mockEmployee.get());
+            position = record(EmployeeChange.Type.DELETED, mockEmployee.get());
         }
+        log.debug("Removed employee: {}", mockEmployee.get());
+        awaitDurable(position);
+        return true;
+    }
+
+    /**
+     * Creates every valid input as one change to the store, and makes the whole batch durable with a single sync.
+     */
+    public List<BulkItemResult<MockEmployee>> createAll(@NonNull List<CreateMockEmployeeInput> inputs) {
+        final List<BulkItemResult<MockEmployee>> results = new ArrayList<>(inputs.size());
+        final List<MockEmployee> created = new ArrayList<>(inputs.size());
+        long position = 0;
+        synchronized (this) {
+            for (int i = 0; i < inputs.size(); i++) {
+                final var input = inputs.get(i);
+                if (input == null) {
+                    results.add(BulkItemResult.invalid(i, "input is required"));
+                    continue;
+                }
+                final var violations = validator.validate(input);
+                if (!violations.isEmpty()) {
+                    results.add(BulkItemResult.invalid(i, describe(violations)));
+                    continue;
+                }
+                final var mockEmployee = MockEmployee.from(
+                        ServerConfiguration.EMAIL_TEMPLATE.formatted(
+                                faker.twitter().userName().toLowerCase()),
+                        input);
+                created.add(mockEmployee);
+                results.add(BulkItemResult.of(i, BulkItemResult.Status.CREATED, mockEmployee));
+            }
+            mockEmployeeStore.addAll(created);
+            for (final var mockEmployee : created) {
+                changeLog.append(EmployeeChange.Type.CREATED, mockEmployee);
+                position = record(EmployeeChange.Type.CREATED, mockEmployee);
+            }
+        }
+        log.debug("Added {} of {} employees", created.size(), inputs.size());
+        awaitDurable(position);
+        return results;
+    }
+
+    /**
+     * Deletes by id or by name, all in one change to the store, and makes the whole batch durable with a single sync.
+     */
+    public List<BulkItemResult<MockEmployee>> deleteAll(@NonNull List<BulkDeleteMockEmployeeInput> inputs) {
+        final List<BulkItemResult<MockEmployee>> results = new ArrayList<>(inputs.size());
+        final List<MockEmployee> deleted = new ArrayList<>(inputs.size());
+        long position = 0;
+        synchronized (this) {
+            mockEmployeeStore.atomically(() -> {
+                for (int i = 0; i < inputs.size(); i++) {
+                    final var input = inputs.get(i);
+                    final Optional<MockEmployee> removed;
+                    if (input != null && input.getId() != null) {
+                        removed = mockEmployeeStore.removeById(input.getId());
+                    } else if (input != null && input.getName() != null && !input.getName().isBlank()) {
+                        removed = mockEmployeeStore.removeByName(input.getName());
+                    } else {
+                        results.add(BulkItemResult.invalid(i, "id or name is required"));
+                        continue;
+                    }
+                    final var index = i;
+                    results.add(removed.map(mockEmployee -> {
+                                deleted.add(mockEmployee);
+                                return BulkItemResult.of(index, BulkItemResult.Status.DELETED, mockEmployee);
+                            })
+                            .orElseGet(() -> BulkItemResult.notFound(index)));
+                }
+                return deleted;
+            });
+            for (final var mockEmployee : deleted) {
+                changeLog.append(EmployeeChange.Type.DELETED, mockEmployee);
+                position = record(EmployeeChange.Type.DELETED, mockEmployee);
+            }
+        }
+        log.debug("Removed {} of {} employees", deleted.size(), inputs.size());
+        awaitDurable(position);
+        return results;
+    }
+
+    private static String describe(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /*
+     * Queued while holding the writer lock, so the journal has changes in the order they were applied, but synced
+     * after releasing it, so concurrent writers can share one fsync.
+     */
+    private long record(EmployeeChange.Type type, MockEmployee mockEmployee) {
+        return journal.map(employeeJournal -> employeeJournal.append(type, mockEmployee))
+                .orElse(0L);
+    }
 
-        return false;
+    private void awaitDurable(long position) {
+        journal.ifPresent(employeeJournal -> employeeJournal.sync(position));
     }
 }
@@ -0,0 +1,168 @@
+package com.reliaquest.server.service;
+
+import com.reliaquest.server.model.MockEmployee;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import lombok.NonNull;
+
+/**
+ * Mock employees indexed by id and by case-folded name, so lookups and deletes take constant time however large the
+ * roster is. Readers share the lock and writers take it alone. The full roster is handed out as an immutable copy,
+ * made once per change, so serializing it never races a write.
+ */
+public class MockEmployeeStore {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, MockEmployee> byId = new LinkedHashMap<>();
+    /*
+     * Employees sharing a name, oldest first.
+     */
+    private final Map<String, Deque<MockEmployee>> byName = new HashMap<>();
+
+    private volatile List<MockEmployee> snapshot;
+
+    public MockEmployeeStore(@NonNull Collection<MockEmployee> mockEmployees) {
+        mockEmployees.forEach(this::index);
+    }
+
+    public Optional<MockEmployee> findById(@NonNull UUID id) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(byId.get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<MockEmployee> getAll() {
+        final var current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        lock.readLock().lock();
+        try {
+            // a writer clears the field while holding the write lock, so nothing can be missed in between
+            final var copy = List.copyOf(byId.values());
+            snapshot = copy;
+            return copy;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(@NonNull MockEmployee mockEmployee) {
+        lock.writeLock().lock();
+        try {
+            index(mockEmployee);
+            snapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(@NonNull Collection<MockEmployee> mockEmployees) {
+        lock.writeLock().lock();
+        try {
+            mockEmployees.forEach(this::index);
+            snapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs {@code changes} holding the write lock, so readers see either none or all of them.
+     */
+    public <T> T atomically(@NonNull Supplier<T> changes) {
+        lock.writeLock().lock();
+        try {
+            return changes.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<MockEmployee> removeById(@NonNull UUID id) {
+        lock.writeLock().lock();
+        try {
+            final var removed = byId.remove(id);
+            if (removed == null) {
+                return Optional.empty();
+            }
+            unindexName(removed);
+            snapshot = null;
+            return Optional.of(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest employee with {@code name}, ignoring case.
+     */
+    public Optional<MockEmployee> removeByName(@NonNull String name) {
+        lock.writeLock().lock();
+        try {
+            final var sameName = byName.get(fold(name));
+            if (sameName == null) {
+                return Optional.empty();
+            }
+            final var removed = sameName.removeFirst();
+            if (sameName.isEmpty()) {
+                byName.remove(fold(name));
+            }
+            byId.remove(removed.getId());
+            snapshot = null;
+            return Optional.of(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(MockEmployee mockEmployee) {
+        final var replaced = byId.put(mockEmployee.getId(), mockEmployee);
+        if (replaced != null) {
+            unindexName(replaced);
+        }
+        if (mockEmployee.getName() != null) {
+            byName.computeIfAbsent(fold(mockEmployee.getName()), ignored -> new ArrayDeque<>())
+                    .addLast(mockEmployee);
+        }
+    }
+
+    private void unindexName(MockEmployee mockEmployee) {
+        if (mockEmployee.getName() == null) {
+            return;
+        }
+        final var sameName = byName.get(fold(mockEmployee.getName()));
+        sameName.remove(mockEmployee);
+        if (sameName.isEmpty()) {
+            byName.remove(fold(mockEmployee.getName()));
+        }
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,164 @@
+package com.reliaquest.server.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reliaquest.server.model.Response;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Random;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Makes matching requests misbehave the way a real backend does under load: late, failed, trickling or cut off. All
+ * randomness comes from one seeded generator, drawn in the same order for every request, so the same seed and the
+ * same sequence of requests misbehave the same way again.
+ */
+@Slf4j
+public class FaultInjectionFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final FaultInjectionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Set<String> excludedPaths;
+    private final Random random;
+
+    public FaultInjectionFilter(
+            FaultInjectionProperties properties, ObjectMapper objectMapper, Set<String> excludedPaths) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.excludedPaths = excludedPaths;
+        final long seed = properties.seed() != null ? properties.seed() : new Random().nextLong();
+        this.random = new Random(seed);
+        log.info("Injecting faults into {} profile(s) with seed {}", properties.profiles().size(), seed);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return excludedPaths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        final var profile = properties.profiles().stream()
+                .filter(candidate -> matches(candidate, request))
+                .findFirst();
+        if (profile.isEmpty()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final var drawn = draw(profile.get());
+        sleep(drawn.delay());
+        switch (drawn.fault()) {
+            case NONE -> chain.doFilter(request, response);
+            case ERROR -> error(profile.get(), response);
+            case RESET, DRIP -> {
+                final var cached = new ContentCachingResponseWrapper(response);
+                chain.doFilter(request, cached);
+                final var body = cached.getContentAsByteArray();
+                if (drawn.fault() == Fault.RESET) {
+                    reset(response, body);
+                } else {
+                    drip(profile.get().drip(), response, body);
+                }
+            }
+        }
+    }
+
+    /*
+     * Draws the delay and then the fault, under one lock, so concurrent requests never interleave their draws.
+     */
+    private synchronized Drawn draw(FaultInjectionProperties.Profile profile) {
+        final var delay = delay(profile.latency());
+        final var value = random.nextDouble();
+        var threshold = profile.errorRate();
+        if (value < threshold) {
+            return new Drawn(delay, Fault.ERROR);
+        }
+        threshold += profile.resetRate();
+        if (value < threshold) {
+            return new Drawn(delay, Fault.RESET);
+        }
+        threshold += profile.drip().rate();
+        return new Drawn(delay, value < threshold ? Fault.DRIP : Fault.NONE);
+    }
+
+    private Duration delay(FaultInjectionProperties.Latency latency) {
+        final var value = latency.value().toNanos();
+        final var nanos =
+                switch (latency.distribution()) {
+                    case NONE -> 0;
+                    case FIXED -> value;
+                    case NORMAL -> value + (long) (random.nextGaussian() * latency.deviation().toNanos());
+                    case LONG_TAIL -> (long) (value * Math.exp(latency.shape() * random.nextGaussian()));
+                };
+        return Duration.ofNanos(Math.max(0, Math.min(nanos, latency.max().toNanos())));
+    }
+
+    private void error(FaultInjectionProperties.Profile profile, HttpServletResponse response) throws IOException {
+        response.setStatus(profile.errorStatus());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Response.error("Injected fault"));
+    }
+
+    /*
+     * Promises the whole body, sends half of it and closes the connection, which clients see as the connection
+     * going away mid-response. An explicit encoding keeps the container from compressing it into a complete,
+     * chunked response instead.
+     */
+    private static void reset(HttpServletResponse response, byte[] body) throws IOException {
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "identity");
+        response.setContentLength(Math.max(1, body.length));
+        response.getOutputStream().write(body, 0, body.length / 2);
+        response.flushBuffer();
+    }
+
+    private static void drip(FaultInjectionProperties.Drip drip, HttpServletResponse response, byte[] body)
+            throws IOException {
+        response.setContentLength(body.length);
+        final var out = response.getOutputStream();
+        for (int offset = 0; offset < body.length; offset += drip.chunk()) {
+            out.write(body, offset, Math.min(drip.chunk(), body.length - offset));
+            response.flushBuffer();
+            sleep(drip.interval());
+        }
+    }
+
+    private static boolean matches(FaultInjectionProperties.Profile profile, HttpServletRequest request) {
+        return (profile.method() == null || profile.method().equalsIgnoreCase(request.getMethod()))
+                && PATH_MATCHER.match(profile.path(), request.getRequestURI());
+    }
+
+    private static void sleep(Duration duration) throws IOException {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis(), duration.toNanosPart() % 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while injecting a fault", e);
+        }
+    }
+
+    private enum Fault {
+        NONE,
+        ERROR,
+        RESET,
+        DRIP
+    }
+
+    private record Drawn(Duration delay, Fault fault) {}
+}
@@ -0,0 +1,62 @@
+package com.reliaquest.server.web;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled  whether faults are injected at all
+ * @param seed     makes a run replayable, a random one is picked and logged when unset
+ * @param profiles checked in order, the first matching a request decides how it misbehaves
+ */
+@ConfigurationProperties(prefix = "mock.faults")
+public record FaultInjectionProperties(boolean enabled, Long seed, @DefaultValue List<Profile> profiles) {
+
+    /**
+     * The fault rates are drawn against one number per request, so together they must not exceed 1.
+     *
+     * @param method      HTTP method to match, any when unset
+     * @param path        Ant-style pattern of the paths to match
+     * @param errorRate   share of requests answered with {@code errorStatus} without being handled
+     * @param resetRate   share of requests whose connection is dropped halfway through the response
+     */
+    public record Profile(
+            String method,
+            @DefaultValue("/**") String path,
+            @DefaultValue Latency latency,
+            @DefaultValue("0") double errorRate,
+            @DefaultValue("500") int errorStatus,
+            @DefaultValue("0") double resetRate,
+            @DefaultValue Drip drip) {}
+
+    /**
+     * @param value     the delay when fixed, the mean when normal, the median when long-tailed
+     * @param deviation standard deviation of a normal delay
+     * @param shape     sigma of a long-tailed, log-normal delay; around 1 gives a p99 ten times the median
+     * @param max       no delay is longer
+     */
+    public record Latency(
+            @DefaultValue("none") Distribution distribution,
+            @DefaultValue("0s") Duration value,
+            @DefaultValue("0s") Duration deviation,
+            @DefaultValue("1") double shape,
+            @DefaultValue("30s") Duration max) {}
+
+    /**
+     * @param rate     share of responses sent slowly
+     * @param chunk    bytes sent at a time
+     * @param interval pause after every chunk
+     */
+    public record Drip(
+            @DefaultValue("0") double rate,
+            @DefaultValue("64") int chunk,
+            @DefaultValue("100ms") Duration interval) {}
+
+    public enum Distribution {
+        NONE,
+        FIXED,
+        NORMAL,
+        LONG_TAIL
+    }
+}
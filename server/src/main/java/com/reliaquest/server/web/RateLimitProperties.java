@@ -0,0 +1,33 @@
+package com.reliaquest.server.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param mode            {@code random} for the original global limit with random thresholds, {@code token-bucket}
+ *                        for a token bucket per client
+ * @param key             what tells clients apart, falling back to the remote address when the API key is missing
+ * @param apiKeyHeader    header carrying the API key
+ * @param capacity        requests a client can burst
+ * @param refillPerSecond requests a client can sustain
+ * @param maxClients      idle clients are forgotten once this many are tracked
+ */
+@ConfigurationProperties(prefix = "mock.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("random") Mode mode,
+        @DefaultValue("remote-address") Key key,
+        @DefaultValue("X-API-Key") String apiKeyHeader,
+        @DefaultValue("10") int capacity,
+        @DefaultValue("5") double refillPerSecond,
+        @DefaultValue("10000") int maxClients) {
+
+    public enum Mode {
+        RANDOM,
+        TOKEN_BUCKET
+    }
+
+    public enum Key {
+        REMOTE_ADDRESS,
+        API_KEY
+    }
+}
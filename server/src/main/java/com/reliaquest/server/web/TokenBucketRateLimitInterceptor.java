@@ -0,0 +1,109 @@
+package com.reliaquest.server.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Token bucket per client, kept as a generic cell rate algorithm: a bucket is the single instant at which it will be
+ * full again, advanced by one refill interval per request with a compare-and-set. No locks are taken, and both the
+ * remaining tokens and the wait for the next one follow exactly from that instant, so every response says how many
+ * requests are left and a refused one says precisely when to retry.
+ */
+public class TokenBucketRateLimitInterceptor implements HandlerInterceptor {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    private final RateLimitProperties properties;
+    private final LongSupplier nanoTime;
+    private final long interval;
+    private final long tolerance;
+    /*
+     * A concurrent hash map is striped internally, so clients only contend with the ones hashed next to them.
+     */
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    /*
+     * Any bucket is full again one tolerance after its last request, so sweeping more often finds nothing new to
+     * forget and only repeats a walk over every client.
+     */
+    private final AtomicLong nextSweep;
+
+    public TokenBucketRateLimitInterceptor(RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    TokenBucketRateLimitInterceptor(RateLimitProperties properties, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.nanoTime = nanoTime;
+        this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / properties.refillPerSecond()));
+        this.tolerance = interval * properties.capacity();
+        this.nextSweep = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        final var now = nanoTime.getAsLong();
+        if (buckets.size() > properties.maxClients()) {
+            sweep(now);
+        }
+        final var bucket = buckets.computeIfAbsent(client(request), ignored -> new AtomicLong(now));
+
+        while (true) {
+            final var fullAt = bucket.get();
+            final var next = Math.max(fullAt, now) + interval;
+            if (next - now > tolerance) {
+                final var retryAfter = next - now - tolerance;
+                headers(response, 0, fullAt - now);
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ceilSeconds(retryAfter)));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                return false;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                headers(response, (tolerance - (next - now)) / interval, next - now);
+                return true;
+            }
+        }
+    }
+
+    int clients() {
+        return buckets.size();
+    }
+
+    private void sweep(long now) {
+        final var due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + tolerance)) {
+            return;
+        }
+        // a full bucket is the same as none; a request racing this may get one token for free
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    private void headers(HttpServletResponse response, long remaining, long untilFull) {
+        response.setHeader(LIMIT_HEADER, String.valueOf(properties.capacity()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(remaining));
+        response.setHeader(RESET_HEADER, String.valueOf(ceilSeconds(untilFull)));
+    }
+
+    private String client(HttpServletRequest request) {
+        if (properties.key() == RateLimitProperties.Key.API_KEY) {
+            final var apiKey = request.getHeader(properties.apiKeyHeader());
+            if (apiKey != null && !apiKey.isBlank()) {
+                return "key:" + apiKey;
+            }
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+
+    private static long ceilSeconds(long nanos) {
+        return Math.max(0, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
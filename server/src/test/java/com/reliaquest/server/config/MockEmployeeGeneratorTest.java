@@ -0,0 +1,54 @@
+package com.reliaquest.server.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.reliaquest.server.model.MockEmployee;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class MockEmployeeGeneratorTest {
+
+    // two full chunks and a partial one
+    private static final int COUNT = 23_456;
+
+    @Test
+    void generate_givenSameSeed_yieldsSameRosterInParallelOrNot() {
+        for (final var seed : List.of(42L, -7L)) {
+            final var sequential = new MockEmployeeGenerator(Locale.US, seed, false).generate(COUNT);
+            final var parallel = new MockEmployeeGenerator(Locale.US, seed, true).generate(COUNT);
+
+            assertThat(sequential).hasSize(COUNT);
+            assertThat(ids(parallel)).isEqualTo(ids(sequential));
+            assertThat(names(parallel)).isEqualTo(names(sequential));
+            assertThat(parallel).isEqualTo(sequential);
+        }
+    }
+
+    @Test
+    void generate_givenDifferentSeeds_yieldsDifferentRosters() {
+        final var first = new MockEmployeeGenerator(Locale.US, 42L, false).generate(100);
+        final var second = new MockEmployeeGenerator(Locale.US, -7L, false).generate(100);
+
+        assertThat(ids(first)).doesNotContainAnyElementsOf(ids(second));
+    }
+
+    @Test
+    void generate_givenSeed_yieldsDistinctVersionFourIds() {
+        final var ids = ids(new MockEmployeeGenerator(Locale.US, 42L, true).generate(COUNT));
+
+        assertThat(ids).doesNotHaveDuplicates().allSatisfy(id -> {
+            assertThat(id.version()).isEqualTo(4);
+            assertThat(id.variant()).isEqualTo(2);
+        });
+    }
+
+    private static List<UUID> ids(List<MockEmployee> employees) {
+        return employees.stream().map(MockEmployee::getId).toList();
+    }
+
+    private static List<String> names(List<MockEmployee> employees) {
+        return employees.stream().map(MockEmployee::getName).toList();
+    }
+}
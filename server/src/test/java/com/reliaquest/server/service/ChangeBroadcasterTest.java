@@ -0,0 +1,165 @@
+package com.reliaquest.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import com.reliaquest.server.controller.MockEmployeeController;
+import com.reliaquest.server.model.EmployeeChange;
+import com.reliaquest.server.model.MockEmployee;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class ChangeBroadcasterTest {
+
+    private static final Duration AWAIT = Duration.ofSeconds(5);
+
+    private final ChangeLog changeLog = spy(new ChangeLog(3));
+    private final CountDownLatch stalling = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ChangeBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void subscribe_givenLastEventId_resumesRightAfterIt() throws Exception {
+        final var mvc = mvc(Duration.ofMinutes(1), 100);
+        final var first = changeLog.append(EmployeeChange.Type.CREATED, employee("First"));
+        final var second = changeLog.append(EmployeeChange.Type.CREATED, employee("Second"));
+
+        final var response = events(mvc, first.sequence());
+        awaitContent(response, "id:" + second.sequence());
+        final var third = changeLog.append(EmployeeChange.Type.DELETED, employee("Third"));
+
+        final var content = awaitContent(response, "id:" + third.sequence());
+        assertThat(content)
+                .doesNotContain("id:" + first.sequence() + "\n")
+                .contains("event:created\n")
+                .contains("event:deleted\n")
+                .contains("Second")
+                .contains("Third");
+    }
+
+    @Test
+    void subscribe_givenLastEventIdOlderThanLog_sendsReset() throws Exception {
+        final var mvc = mvc(Duration.ofMinutes(1), 100);
+        final var since = changeLog.sequence();
+        for (int i = 0; i < 5; i++) {
+            changeLog.append(EmployeeChange.Type.CREATED, employee("Employee " + i));
+        }
+
+        final var content = awaitContent(events(mvc, since), "event:" + ChangeBroadcaster.RESET_EVENT);
+
+        assertThat(content).contains("id:" + changeLog.sequence()).doesNotContain("event:created");
+    }
+
+    @Test
+    void subscribe_givenQuietLog_sendsHeartbeatWithSequence() throws Exception {
+        final var mvc = mvc(Duration.ofMillis(50), 100);
+
+        final var content =
+                awaitContent(events(mvc, changeLog.sequence()), "event:" + ChangeBroadcaster.HEARTBEAT_EVENT);
+
+        assertThat(content).contains("data:" + changeLog.sequence());
+    }
+
+    @Test
+    void subscribe_givenClientFallingBehind_dropsIt() throws Exception {
+        final var mvc = mvc(Duration.ofMinutes(1), 1);
+        events(mvc, changeLog.sequence());
+
+        // the first send stalls, the second fills the queue and the third finds no room
+        changeLog.append(EmployeeChange.Type.CREATED, stalled());
+        assertThat(stalling.await(AWAIT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+        changeLog.append(EmployeeChange.Type.CREATED, employee("Queued"));
+        verify(changeLog, never()).unsubscribe(any());
+        changeLog.append(EmployeeChange.Type.CREATED, employee("Rejected"));
+
+        verify(changeLog, timeout(AWAIT.toMillis())).unsubscribe(any());
+    }
+
+    @Test
+    void subscribe_givenClientKeepingUp_keepsIt() throws Exception {
+        final var mvc = mvc(Duration.ofMinutes(1), 1);
+        final var response = events(mvc, changeLog.sequence());
+
+        for (int i = 0; i < 20; i++) {
+            final var change = changeLog.append(EmployeeChange.Type.CREATED, employee("Employee " + i));
+            awaitContent(response, "id:" + change.sequence());
+        }
+
+        verify(changeLog, never()).unsubscribe(any());
+    }
+
+    private MockMvc mvc(Duration heartbeatInterval, int maxQueuedEvents) {
+        broadcaster = new ChangeBroadcaster(changeLog, heartbeatInterval, maxQueuedEvents);
+        return MockMvcBuilders.standaloneSetup(
+                        new MockEmployeeController(mock(MockEmployeeService.class), broadcaster))
+                .build();
+    }
+
+    private static MockHttpServletResponse events(MockMvc mvc, long lastEventId) throws Exception {
+        return mvc.perform(get(MockEmployeeController.EVENTS_PATH).header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        final var deadline = System.nanoTime() + AWAIT.toNanos();
+        while (System.nanoTime() < deadline) {
+            final var content = response.getContentAsString();
+            if (content.contains(expected)) {
+                return content;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No " + expected + " in " + response.getContentAsString());
+    }
+
+    private static MockEmployee employee(String name) {
+        return MockEmployee.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .salary(50_000)
+                .age(30)
+                .title("Engineer")
+                .email("employee@company.com")
+                .build();
+    }
+
+    /*
+     * An employee whose serialization blocks until the test ends, like a client that stopped reading.
+     */
+    private MockEmployee stalled() {
+        return new MockEmployee(UUID.randomUUID(), "Stalled", 50_000, 30, "Engineer", "stalled@company.com") {
+            @Override
+            public String getName() {
+                stalling.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getName();
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package com.reliaquest.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.reliaquest.server.model.EmployeeChange;
+import com.reliaquest.server.model.MockEmployee;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EmployeeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<EmployeeJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() throws IOException {
+        for (final var journal : opened) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                // already closed by the test
+            }
+        }
+    }
+
+    @Test
+    void recover_givenFirstStart_returnsEmpty() throws IOException {
+        assertThat(open().recover()).isEmpty();
+    }
+
+    @Test
+    void recover_givenSeedAndChanges_returnsRosterInOrder() throws IOException {
+        final var seeded = employees(0, 3);
+        final var created = employee(3);
+        final var journal = open();
+        journal.seed(seeded);
+        journal.sync(journal.append(EmployeeChange.Type.CREATED, created));
+        journal.sync(journal.append(EmployeeChange.Type.DELETED, seeded.get(1)));
+        journal.close();
+
+        assertThat(open().recover())
+                .hasValueSatisfying(roster -> assertThat(roster).containsExactly(seeded.get(0), seeded.get(2), created));
+    }
+
+    @Test
+    void recover_givenTornTrailingRecord_keepsRecordsBeforeIt() throws IOException {
+        final var seeded = employees(0, 2);
+        final var created = employees(2, 4);
+        final var journal = open();
+        journal.seed(seeded);
+        created.forEach(employee -> journal.sync(journal.append(EmployeeChange.Type.CREATED, employee)));
+        journal.close();
+        // a frame header announcing 50 bytes, cut short after 3
+        Files.write(
+                directory.resolve("journal-1.log"), new byte[] {0, 0, 0, 50, 1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND);
+
+        final var recovered = open().recover();
+
+        assertThat(recovered).hasValueSatisfying(roster -> assertThat(roster)
+                .containsExactlyElementsOf(Stream.concat(seeded.stream(), created.stream())
+                        .toList()));
+    }
+
+    @Test
+    void recover_givenCorruptTrailingRecord_ignoresIt() throws IOException {
+        final var seeded = employees(0, 2);
+        final var journal = open();
+        journal.seed(seeded);
+        journal.sync(journal.append(EmployeeChange.Type.CREATED, employee(2)));
+        journal.close();
+        final var segment = directory.resolve("journal-1.log");
+        final var bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(segment, bytes);
+
+        assertThat(open().recover()).hasValue(seeded);
+    }
+
+    @Test
+    void restart_givenExistingFiles_startsNextGeneration() throws IOException {
+        final var first = open();
+        first.seed(employees(0, 1));
+        first.close();
+        assertThat(fileNames()).containsExactlyInAnyOrder("snapshot-1.bin", "journal-1.log");
+
+        open().close();
+        assertThat(fileNames()).containsExactlyInAnyOrder("snapshot-1.bin", "journal-1.log", "journal-2.log");
+
+        open();
+        assertThat(fileNames())
+                .containsExactlyInAnyOrder("snapshot-1.bin", "journal-1.log", "journal-2.log", "journal-3.log");
+    }
+
+    @Test
+    void compact_givenSnapshotAndSegments_foldsThemIntoNewSnapshot() throws IOException {
+        final var seeded = employees(0, 3);
+        final var first = open();
+        first.seed(seeded);
+        first.sync(first.append(EmployeeChange.Type.DELETED, seeded.get(0)));
+        first.close();
+        final var journal = open();
+        final var created = employee(3);
+        journal.sync(journal.append(EmployeeChange.Type.CREATED, created));
+
+        journal.compact();
+
+        assertThat(fileNames()).containsExactlyInAnyOrder("snapshot-3.bin", "journal-3.log");
+        final var later = employee(4);
+        journal.sync(journal.append(EmployeeChange.Type.CREATED, later));
+        journal.close();
+        assertThat(open().recover())
+                .hasValueSatisfying(roster ->
+                        assertThat(roster).containsExactly(seeded.get(1), seeded.get(2), created, later));
+        assertThat(fileNames()).contains("journal-4.log");
+    }
+
+    @Test
+    void compact_givenNothingAppendedSinceSnapshot_keepsFiles() throws IOException {
+        final var journal = open();
+        journal.seed(employees(0, 2));
+
+        journal.compact();
+
+        assertThat(fileNames()).containsExactlyInAnyOrder("snapshot-1.bin", "journal-1.log");
+    }
+
+    @Test
+    void sync_givenEarlierWriteFailed_failsWithoutWriting() throws IOException {
+        final var journal = open();
+        journal.seed(employees(0, 1));
+        journal.close();
+        final var lost = journal.append(EmployeeChange.Type.CREATED, employee(1));
+        assertThatThrownBy(() -> journal.sync(lost)).isInstanceOf(UncheckedIOException.class);
+
+        final var later = journal.append(EmployeeChange.Type.CREATED, employee(2));
+
+        assertThatThrownBy(() -> journal.sync(later))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessage("Journal write failed earlier");
+    }
+
+    private EmployeeJournal open() throws IOException {
+        final var journal = new EmployeeJournal(directory, Duration.ofHours(1));
+        opened.add(journal);
+        return journal;
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+
+    private static List<MockEmployee> employees(int from, int to) {
+        return IntStream.range(from, to).mapToObj(EmployeeJournalTest::employee).toList();
+    }
+
+    private static MockEmployee employee(int index) {
+        return MockEmployee.builder()
+                .id(UUID.randomUUID())
+                .name("Employee " + index)
+                .salary(30_000 + index)
+                .age(index % 2 == 0 ? 30 : null)
+                .title("Title " + index)
+                .email("employee" + index + "@company.com")
+                .build();
+    }
+}
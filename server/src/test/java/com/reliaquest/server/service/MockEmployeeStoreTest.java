@@ -0,0 +1,152 @@
+package com.reliaquest.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import com.reliaquest.server.model.MockEmployee;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class MockEmployeeStoreTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+
+    @Test
+    void removeByName_givenDuplicateNames_removesOldestFirstIgnoringCase() {
+        final var first = employee("Jane Doe");
+        final var second = employee("JANE DOE");
+        final var other = employee("John Roe");
+        final var store = new MockEmployeeStore(List.of(first, other, second));
+
+        assertThat(store.removeByName("jane doe")).hasValue(first);
+        assertThat(store.removeByName("Jane Doe")).hasValue(second);
+        assertThat(store.removeByName("Jane Doe")).isEmpty();
+        assertThat(store.getAll()).containsExactly(other);
+    }
+
+    @Test
+    void removeByName_givenOldestRemovedById_removesNextOldest() {
+        final var first = employee("Jane Doe");
+        final var second = employee("Jane Doe");
+        final var store = new MockEmployeeStore(List.of(first, second));
+
+        store.removeById(first.getId());
+
+        assertThat(store.removeByName("Jane Doe")).hasValue(second);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void add_givenExistingId_reindexesUnderNewName() {
+        final var original = employee("Jane Doe");
+        final var renamed = original.toBuilder().name("Jane Roe").build();
+        final var store = new MockEmployeeStore(List.of(original));
+
+        store.add(renamed);
+
+        assertThat(store.size()).isOne();
+        assertThat(store.findById(original.getId())).hasValue(renamed);
+        assertThat(store.removeByName("Jane Doe")).isEmpty();
+        assertThat(store.removeByName("Jane Roe")).hasValue(renamed);
+    }
+
+    @Test
+    void removeById_givenEmployeeWithoutName_removesIt() {
+        final var nameless = employee(null);
+        final var store = new MockEmployeeStore(List.of(nameless));
+
+        assertThat(store.removeById(nameless.getId())).hasValue(nameless);
+        assertThat(store.removeById(nameless.getId())).isEmpty();
+    }
+
+    @Test
+    void getAll_givenNoChange_returnsSameSnapshot() {
+        final var store = new MockEmployeeStore(List.of(employee("Jane Doe")));
+
+        assertThat(store.getAll()).isSameAs(store.getAll());
+    }
+
+    @Test
+    void getAll_givenChange_returnsNewSnapshotAndKeepsOldOne() {
+        final var existing = employee("Jane Doe");
+        final var added = employee("John Roe");
+        final var store = new MockEmployeeStore(List.of(existing));
+        final var before = store.getAll();
+
+        store.add(added);
+        final var afterAdd = store.getAll();
+        store.removeByName("Jane Doe");
+        final var afterRemove = store.getAll();
+
+        assertThat(before).containsExactly(existing);
+        assertThat(afterAdd).containsExactly(existing, added);
+        assertThat(afterRemove).containsExactly(added);
+    }
+
+    @Test
+    void getAll_givenConcurrentWrites_neverSeesHalfAWrite() {
+        final var store = new MockEmployeeStore(List.of());
+        final var writers = new AtomicInteger(WRITERS);
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            final var name = "Writer " + i;
+            tasks.add(() -> {
+                try {
+                    for (int round = 0; round < 2_000; round++) {
+                        // every write adds or removes a pair, so readers must always see an even count
+                        final var pair = List.of(employee(name), employee(name));
+                        store.addAll(pair);
+                        store.atomically(() -> {
+                            store.removeByName(name);
+                            return store.removeById(pair.get(1).getId());
+                        });
+                    }
+                } finally {
+                    writers.decrementAndGet();
+                }
+                return null;
+            });
+        }
+        for (int i = 0; i < READERS; i++) {
+            tasks.add(() -> {
+                while (writers.get() > 0) {
+                    final var roster = store.getAll();
+                    assertThat(roster.size() % 2).isZero();
+                    roster.forEach(employee -> store.findById(employee.getId())
+                            .ifPresent(found -> assertThat(found).isSameAs(employee)));
+                }
+                return null;
+            });
+        }
+
+        final var pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                for (final var result : pool.invokeAll(tasks)) {
+                    result.get();
+                }
+            });
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(store.getAll()).isEmpty();
+    }
+
+    private static MockEmployee employee(String name) {
+        return MockEmployee.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .salary(50_000)
+                .age(30)
+                .title("Engineer")
+                .email("employee@company.com")
+                .build();
+    }
+}
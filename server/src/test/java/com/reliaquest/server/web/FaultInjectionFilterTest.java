@@ -0,0 +1,253 @@
+package com.reliaquest.server.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class FaultInjectionFilterTest {
+
+    private static final byte[] BODY = "0123456789".getBytes(StandardCharsets.UTF_8);
+    private static final String EXCLUDED_PATH = "/health";
+    private static final Duration MAX_DELAY = Duration.ofMillis(20);
+
+    private final AtomicInteger handled = new AtomicInteger();
+    private byte[] body = BODY;
+
+    @Test
+    void doFilter_givenSameSeed_replaysSameFaults() throws Exception {
+        final var profile = profile(
+                null,
+                "/**",
+                new FaultInjectionProperties.Latency(
+                        FaultInjectionProperties.Distribution.NORMAL,
+                        Duration.ZERO,
+                        Duration.ofHours(1),
+                        1,
+                        Duration.ZERO),
+                0.25,
+                0.25,
+                drip(0.25));
+
+        final var first = faults(filter(42L, profile), 200);
+        final var second = faults(filter(42L, profile), 200);
+        final var otherSeed = faults(filter(-7L, profile), 200);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(first).contains("none", "error", "reset", "drip");
+        assertThat(otherSeed).isNotEqualTo(first);
+    }
+
+    @Test
+    void doFilter_givenOverlappingProfiles_firstMatchDecides() throws Exception {
+        final var filter = filter(
+                42L,
+                profile("GET", "/api/v1/employee/**", noLatency(), 1, 0, drip(0), 503),
+                profile(null, "/api/**", noLatency(), 1, 0, drip(0), 500));
+
+        assertThat(filter(filter, request("GET", "/api/v1/employee/1")).getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(filter(filter, request("get", "/api/v1/employee")).getStatus())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(filter(filter, request("POST", "/api/v1/employee")).getStatus())
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        assertThat(handled).hasValue(0);
+    }
+
+    @Test
+    void doFilter_givenNoMatchingProfileOrExcludedPath_passesThrough() throws Exception {
+        final var filter = filter(42L, profile(null, "/api/**", noLatency(), 1, 0, drip(0)));
+
+        final var unmatched = filter(filter, request("GET", "/other"));
+        final var excluded = filter(filter, request("GET", EXCLUDED_PATH));
+
+        assertThat(unmatched.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(unmatched.getContentAsByteArray()).isEqualTo(BODY);
+        assertThat(excluded.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(handled).hasValue(2);
+    }
+
+    @Test
+    void doFilter_givenError_answersWithoutHandling() throws Exception {
+        final var filter = filter(42L, profile(null, "/**", noLatency(), 1, 0, drip(0), 503));
+
+        final var response = filter(filter, request("GET", "/api/v1/employee"));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(response.getContentAsString()).contains("Injected fault");
+        assertThat(handled).hasValue(0);
+    }
+
+    @Test
+    void doFilter_givenLatencyPastMax_capsEveryDistribution() throws Exception {
+        for (final var distribution : List.of(
+                FaultInjectionProperties.Distribution.FIXED,
+                FaultInjectionProperties.Distribution.NORMAL,
+                FaultInjectionProperties.Distribution.LONG_TAIL)) {
+            final var latency = new FaultInjectionProperties.Latency(
+                    distribution, Duration.ofHours(1), Duration.ofHours(1), 3, MAX_DELAY);
+            final var filter = filter(42L, profile(null, "/**", latency, 0, 0, drip(0)));
+
+            for (int i = 0; i < 10; i++) {
+                final var start = System.nanoTime();
+                filter(filter, request("GET", "/api/v1/employee"));
+                final var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+                // an hour uncapped, so anything near the cap shows it held
+                assertThat(elapsed).as("%s delay", distribution).isLessThan(Duration.ofSeconds(5));
+                if (distribution == FaultInjectionProperties.Distribution.FIXED) {
+                    assertThat(elapsed).isGreaterThanOrEqualTo(MAX_DELAY);
+                }
+            }
+        }
+    }
+
+    @Test
+    void doFilter_givenNegativeNormalDelay_doesNotWait() throws Exception {
+        final var latency = new FaultInjectionProperties.Latency(
+                FaultInjectionProperties.Distribution.NORMAL,
+                Duration.ofHours(-1),
+                Duration.ZERO,
+                1,
+                Duration.ofHours(1));
+        final var filter = filter(42L, profile(null, "/**", latency, 0, 0, drip(0)));
+
+        final var start = System.nanoTime();
+        final var response = filter(filter, request("GET", "/api/v1/employee"));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        assertThat(response.getContentAsByteArray()).isEqualTo(BODY);
+    }
+
+    @Test
+    void doFilter_givenReset_promisesWholeBodyAndSendsHalf() throws Exception {
+        final var filter = filter(42L, profile(null, "/**", noLatency(), 0, 1, drip(0)));
+
+        final var response = filter(filter, request("GET", "/api/v1/employee"));
+
+        assertThat(handled).hasValue(1);
+        assertThat(response.getHeader(HttpHeaders.CONNECTION)).isEqualTo("close");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("identity");
+        assertThat(response.getContentLength()).isEqualTo(BODY.length);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOf(BODY, BODY.length / 2));
+        assertThat(response.isCommitted()).isTrue();
+    }
+
+    @Test
+    void doFilter_givenResetOfEmptyBody_stillPromisesMoreThanItSends() throws Exception {
+        body = new byte[0];
+        final var filter = filter(42L, profile(null, "/**", noLatency(), 0, 1, drip(0)));
+
+        final var response = filter(filter, request("DELETE", "/api/v1/employee/1"));
+
+        assertThat(response.getContentLength()).isOne();
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void doFilter_givenDrip_sendsWholeBodyChunkByChunk() throws Exception {
+        final var filter = filter(42L, profile(null, "/**", noLatency(), 0, 0, drip(1)));
+        final List<Integer> flushed = new ArrayList<>();
+        final var response = new MockHttpServletResponse() {
+            @Override
+            public void flushBuffer() {
+                super.flushBuffer();
+                flushed.add(getContentAsByteArray().length);
+            }
+        };
+
+        filter.doFilter(request("GET", "/api/v1/employee"), response, chain());
+
+        assertThat(handled).hasValue(1);
+        assertThat(response.getContentLength()).isEqualTo(BODY.length);
+        assertThat(response.getContentAsByteArray()).isEqualTo(BODY);
+        assertThat(flushed).containsExactly(4, 8, 10);
+    }
+
+    private FaultInjectionFilter filter(long seed, FaultInjectionProperties.Profile... profiles) {
+        return new FaultInjectionFilter(
+                new FaultInjectionProperties(true, seed, List.of(profiles)),
+                new ObjectMapper(),
+                Set.of(EXCLUDED_PATH));
+    }
+
+    private MockHttpServletResponse filter(FaultInjectionFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        final var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain());
+        return response;
+    }
+
+    /*
+     * What each request ran into, told apart by what the filter left on the response.
+     */
+    private List<String> faults(FaultInjectionFilter filter, int requests) throws Exception {
+        final List<String> faults = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            final var response = filter(filter, request("GET", "/api/v1/employee"));
+            if (response.getStatus() != HttpStatus.OK.value()) {
+                faults.add("error");
+            } else if (response.getHeader(HttpHeaders.CONNECTION) != null) {
+                faults.add("reset");
+            } else if (response.getContentLength() == BODY.length) {
+                faults.add("drip");
+            } else {
+                faults.add("none");
+            }
+        }
+        return faults;
+    }
+
+    private FilterChain chain() {
+        return (request, response) -> {
+            handled.incrementAndGet();
+            response.getOutputStream().write(body);
+        };
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        return new MockHttpServletRequest(method, path);
+    }
+
+    private static FaultInjectionProperties.Profile profile(
+            String method,
+            String path,
+            FaultInjectionProperties.Latency latency,
+            double errorRate,
+            double resetRate,
+            FaultInjectionProperties.Drip drip) {
+        return profile(method, path, latency, errorRate, resetRate, drip, 500);
+    }
+
+    private static FaultInjectionProperties.Profile profile(
+            String method,
+            String path,
+            FaultInjectionProperties.Latency latency,
+            double errorRate,
+            double resetRate,
+            FaultInjectionProperties.Drip drip,
+            int errorStatus) {
+        return new FaultInjectionProperties.Profile(method, path, latency, errorRate, errorStatus, resetRate, drip);
+    }
+
+    private static FaultInjectionProperties.Latency noLatency() {
+        return new FaultInjectionProperties.Latency(
+                FaultInjectionProperties.Distribution.NONE, Duration.ZERO, Duration.ZERO, 1, Duration.ZERO);
+    }
+
+    private static FaultInjectionProperties.Drip drip(double rate) {
+        return new FaultInjectionProperties.Drip(rate, 4, Duration.ZERO);
+    }
+}
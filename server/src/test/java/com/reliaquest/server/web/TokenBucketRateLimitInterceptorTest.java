@@ -0,0 +1,132 @@
+package com.reliaquest.server.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class TokenBucketRateLimitInterceptorTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void preHandle_givenBurstOfCapacity_acceptsItAndCountsDown() {
+        final var interceptor = interceptor(RateLimitProperties.Key.REMOTE_ADDRESS, 3, 1, 100);
+
+        for (final var remaining : new String[] {"2", "1", "0"}) {
+            final var response = new MockHttpServletResponse();
+            assertThat(interceptor.preHandle(fromAddress("10.0.0.1"), response, null)).isTrue();
+            assertThat(response.getHeader(TokenBucketRateLimitInterceptor.LIMIT_HEADER)).isEqualTo("3");
+            assertThat(response.getHeader(TokenBucketRateLimitInterceptor.REMAINING_HEADER)).isEqualTo(remaining);
+        }
+
+        final var refused = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(fromAddress("10.0.0.1"), refused, null)).isFalse();
+        assertThat(refused.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(refused.getHeader(TokenBucketRateLimitInterceptor.REMAINING_HEADER)).isEqualTo("0");
+        assertThat(refused.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(refused.getHeader(TokenBucketRateLimitInterceptor.RESET_HEADER)).isEqualTo("3");
+    }
+
+    @Test
+    void preHandle_givenRefusal_retryAfterIsWhenNextTokenArrives() {
+        final var interceptor = interceptor(RateLimitProperties.Key.REMOTE_ADDRESS, 2, 0.5, 100);
+        request(interceptor, fromAddress("10.0.0.1"));
+        request(interceptor, fromAddress("10.0.0.1"));
+
+        final var refused = request(interceptor, fromAddress("10.0.0.1"));
+        assertThat(refused.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+
+        advance(Duration.ofMillis(500));
+        final var stillRefused = request(interceptor, fromAddress("10.0.0.1"));
+        assertThat(stillRefused.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(stillRefused.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+
+        advance(Duration.ofMillis(1500));
+        final var accepted = request(interceptor, fromAddress("10.0.0.1"));
+        assertThat(accepted.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(accepted.getHeader(TokenBucketRateLimitInterceptor.REMAINING_HEADER)).isEqualTo("0");
+    }
+
+    @Test
+    void preHandle_givenDifferentApiKeys_limitsEachSeparately() {
+        final var interceptor = interceptor(RateLimitProperties.Key.API_KEY, 1, 1, 100);
+        assertThat(request(interceptor, withApiKey("first")).getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(request(interceptor, withApiKey("first")).getStatus())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        assertThat(request(interceptor, withApiKey("second")).getStatus()).isEqualTo(HttpStatus.OK.value());
+        // without a key, the remote address is the client
+        assertThat(request(interceptor, fromAddress("10.0.0.1")).getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void preHandle_givenDifferentAddresses_limitsEachSeparately() {
+        final var interceptor = interceptor(RateLimitProperties.Key.REMOTE_ADDRESS, 1, 1, 100);
+        assertThat(request(interceptor, fromAddress("10.0.0.1")).getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(request(interceptor, fromAddress("10.0.0.1")).getStatus())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        assertThat(request(interceptor, fromAddress("10.0.0.2")).getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void preHandle_givenTooManyClients_sweepsFullBucketsAtMostOncePerRefill() {
+        // refilling two tokens takes 2s
+        final var interceptor = interceptor(RateLimitProperties.Key.REMOTE_ADDRESS, 2, 1, 1);
+        request(interceptor, fromAddress("10.0.0.1"));
+        request(interceptor, fromAddress("10.0.0.2"));
+        // sweeps, but neither bucket is full yet
+        request(interceptor, fromAddress("10.0.0.3"));
+        assertThat(interceptor.clients()).isEqualTo(3);
+
+        advance(Duration.ofMillis(1500));
+        request(interceptor, fromAddress("10.0.0.4"));
+        assertThat(interceptor.clients()).isEqualTo(4);
+
+        advance(Duration.ofMillis(500));
+        request(interceptor, fromAddress("10.0.0.5"));
+        assertThat(interceptor.clients()).isEqualTo(2);
+    }
+
+    private TokenBucketRateLimitInterceptor interceptor(
+            RateLimitProperties.Key key, int capacity, double refillPerSecond, int maxClients) {
+        return new TokenBucketRateLimitInterceptor(
+                new RateLimitProperties(
+                        RateLimitProperties.Mode.TOKEN_BUCKET,
+                        key,
+                        "X-API-Key",
+                        capacity,
+                        refillPerSecond,
+                        maxClients),
+                now::get);
+    }
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    private static MockHttpServletResponse request(
+            TokenBucketRateLimitInterceptor interceptor, MockHttpServletRequest request) {
+        final var response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        return response;
+    }
+
+    private static MockHttpServletRequest fromAddress(String address) {
+        final var request = new MockHttpServletRequest();
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    private static MockHttpServletRequest withApiKey(String apiKey) {
+        final var request = fromAddress("10.0.0.1");
+        request.addHeader("X-API-Key", apiKey);
+        return request;
+    }
+}